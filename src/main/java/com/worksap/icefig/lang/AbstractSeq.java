@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * A skeleton of the seqs whose elements are read through {@link #get(int)}, such as the file-backed seqs.
+ * <p>
+ * The lookups scan the elements in place. The operations resulting a new seq decode the elements
+ * into an in-memory seq by {@link #toSeq()} first, and delegate to it.
+ * </p>
+ */
+abstract class AbstractSeq<T> implements Seq<T>, Iterable<T> {
+    /**
+     * Copies all the elements into an in-memory seq.
+     */
+    public MutableSeq<T> toSeq() {
+        MutableSeq<T> seq = new SeqImpl<>(size());
+        forEach((Consumer<T>) seq::appendInPlace);
+        return seq;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(T t) {
+        return indexOf(t) >= 0;
+    }
+
+    @Override
+    public int indexOf(T t) {
+        int i = 0;
+        for (T e : this) {
+            if (Objects.equals(e, t)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(T t) {
+        for (int i = size() - 1; i >= 0; i--) {
+            if (Objects.equals(get(i), t)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int cursor;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(cursor++);
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        for (T t : this) {
+            action.accept(t);
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super T, Integer> action) {
+        Objects.requireNonNull(action);
+        int i = 0;
+        for (T t : this) {
+            action.accept(t, i++);
+        }
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+    }
+
+    @Override
+    public ArrayList<T> toArrayList() {
+        ArrayList<T> list = new ArrayList<>(size());
+        forEach((Consumer<T>) list::add);
+        return list;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toArrayList().toArray();
+    }
+
+    @Override
+    public <R> MutableSeq<R> map(Function<T, R> func) {
+        return toSeq().map(func);
+    }
+
+    @Override
+    public <R> MutableSeq<R> map(BiFunction<T, Integer, R> func) {
+        return toSeq().map(func);
+    }
+
+    @Override
+    public <R> MutableSeq<R> flatMap(Function<T, Seq<R>> func) {
+        return toSeq().flatMap(func);
+    }
+
+    @Override
+    public <R> MutableSeq<R> flatMap(BiFunction<T, Integer, Seq<R>> func) {
+        return toSeq().flatMap(func);
+    }
+
+    @Override
+    public MutableSeq<T> sample(int n) {
+        return toSeq().sample(n);
+    }
+
+    @Override
+    public MutableSeq<T> shuffle() {
+        return toSeq().shuffle();
+    }
+
+    @Override
+    public MutableSeq<MutableSeq<T>> eachCons(int n) {
+        return toSeq().eachCons(n);
+    }
+
+    @Override
+    public MutableSeq<T> sort(Comparator<? super T> comparator) {
+        return toSeq().sortInPlace(comparator);
+    }
+
+    @Override
+    public <K extends Comparable<? super K>> MutableSeq<T> sortBy(Function<? super T, ? extends K> keyExtractor) {
+        return toSeq().sortBy(keyExtractor);
+    }
+
+    @Override
+    public <K> MutableSeq<T> sortBy(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+        return toSeq().sortBy(keyExtractor, keyComparator);
+    }
+
+    @Override
+    public MutableSeq<T> sortByInt(ToIntFunction<? super T> keyExtractor) {
+        return toSeq().sortByInt(keyExtractor);
+    }
+
+    @Override
+    public MutableSeq<T> sortByLong(ToLongFunction<? super T> keyExtractor) {
+        return toSeq().sortByLong(keyExtractor);
+    }
+
+    @Override
+    public MutableSeq<T> distinct() {
+        return toSeq().distinctInPlace();
+    }
+
+    @Override
+    public MutableSeq<T> maxN(int k, Comparator<? super T> comparator) {
+        return toSeq().maxN(k, comparator);
+    }
+
+    @Override
+    public MutableSeq<T> minN(int k, Comparator<? super T> comparator) {
+        return toSeq().minN(k, comparator);
+    }
+
+    @Override
+    public MutableSeq<T> append(T value) {
+        return toSeq().appendInPlace(value);
+    }
+
+    @Override
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final MutableSeq<T> append(T... values) {
+        return toSeq().appendInPlace(values);
+    }
+
+    @Override
+    public MutableSeq<T> append(Collection<? extends T> collection) {
+        return toSeq().appendInPlace(collection);
+    }
+
+    @Override
+    public MutableSeq<T> append(Seq<? extends T> seq) {
+        return toSeq().appendInPlace(seq);
+    }
+
+    @Override
+    public MutableSeq<T> prepend(T value) {
+        return toSeq().prependInPlace(value);
+    }
+
+    @Override
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final MutableSeq<T> prepend(T... values) {
+        return toSeq().prependInPlace(values);
+    }
+
+    @Override
+    public MutableSeq<T> prepend(Collection<? extends T> collection) {
+        return toSeq().prependInPlace(collection);
+    }
+
+    @Override
+    public MutableSeq<T> prepend(Seq<? extends T> seq) {
+        return toSeq().prependInPlace(seq);
+    }
+
+    @Override
+    public MutableSeq<T> reject(Predicate<T> condition) {
+        return toSeq().rejectInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> reject(BiPredicate<T, Integer> condition) {
+        return toSeq().rejectInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> rejectWhile(Predicate<T> condition) {
+        return toSeq().rejectWhileInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> rejectWhile(BiPredicate<T, Integer> condition) {
+        return toSeq().rejectWhileInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> filter(Predicate<T> condition) {
+        return toSeq().filterInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> filter(BiPredicate<T, Integer> condition) {
+        return toSeq().filterInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> filterWhile(Predicate<T> condition) {
+        return toSeq().filterWhileInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> filterWhile(BiPredicate<T, Integer> condition) {
+        return toSeq().filterWhileInPlace(condition);
+    }
+
+    @Override
+    public MutableSeq<T> repeat(int times) {
+        return toSeq().repeatInPlace(times);
+    }
+
+    @Override
+    public MutableSeq<T> compact() {
+        return toSeq().compactInPlace();
+    }
+
+    @Override
+    public MutableSeq<MutableSeq<T>> eachSlice(int n) {
+        return toSeq().eachSlice(n);
+    }
+
+    @Override
+    public MutableSeq<T> reverse() {
+        return toSeq().reverseInPlace();
+    }
+
+    @Override
+    public void forEachCombination(int n, Consumer<Seq<T>> action) {
+        toSeq().forEachCombination(n, action);
+    }
+
+    @Override
+    public MutableSeq<MutableSeq<T>> eachCombination(int n) {
+        return toSeq().eachCombination(n);
+    }
+
+    @Override
+    public Seq<T> intersect(Seq<T> seq) {
+        return toSeq().intersect(seq);
+    }
+
+    @Override
+    public Seq<T> difference(Seq<T> seq) {
+        return toSeq().difference(seq);
+    }
+
+    @Override
+    public Seq<T> swap(int i, int j) {
+        return toSeq().swapInPlace(i, j);
+    }
+
+    @Override
+    public Seq<T> rotate(int distance) {
+        return toSeq().rotateInPlace(distance);
+    }
+}
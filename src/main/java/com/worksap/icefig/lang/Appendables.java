@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Appends elements and numbers to an {@link Appendable}, used by the join methods of seqs and by {@link Json}.
+ * <p>
+ * CharSeqs and CharSequences are appended without converting them into Strings, and numbers are formatted into
+ * a reused digit buffer instead of a String per number. An instance is not thread-safe.
+ * </p>
+ */
+final class Appendables {
+    /**
+     * The maximum number of characters of a long, which is the length of Long.MIN_VALUE.
+     */
+    private static final int MAX_LONG_LENGTH = 20;
+
+    private final Appendable out;
+    private final char[] digits;
+
+    Appendables(Appendable out) {
+        this.out = out;
+        this.digits = out instanceof StringBuilder ? null : new char[MAX_LONG_LENGTH];
+    }
+
+    Appendables append(CharSequence csq) throws IOException {
+        out.append(csq);
+        return this;
+    }
+
+    /**
+     * Appends the element as {@link String#valueOf(Object)} would. The String of a CharSeq is not copied.
+     */
+    Appendables appendElement(Object element) throws IOException {
+        if (element instanceof CharSequence) {
+            out.append((CharSequence) element);
+        } else {
+            out.append(String.valueOf(element));
+        }
+        return this;
+    }
+
+    Appendables appendLong(long value) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+            return this;
+        }
+        int from = format(value, digits);
+        if (out instanceof Writer) {
+            ((Writer) out).write(digits, from, MAX_LONG_LENGTH - from);
+        } else {
+            out.append(CharBuffer.wrap(digits, from, MAX_LONG_LENGTH - from));
+        }
+        return this;
+    }
+
+    /**
+     * Formats the value into the end of the buffer, returning the index of its first character.
+     * It works on the negated value, so that Long.MIN_VALUE needs no special case.
+     */
+    private static int format(long value, char[] buffer) {
+        int pos = buffer.length;
+        long negated = value < 0 ? value : -value;
+        do {
+            long quotient = negated / 10;
+            buffer[--pos] = (char) ('0' + (quotient * 10 - negated));
+            negated = quotient;
+        } while (negated != 0);
+        if (value < 0) {
+            buffer[--pos] = '-';
+        }
+        return pos;
+    }
+
+    /**
+     * @return the number of characters of the value in decimal
+     */
+    static int stringSize(long value) {
+        int sign = value < 0 ? 1 : 0;
+        long negated = value < 0 ? value : -value;
+        long bound = -10;
+        for (int digits = 1; digits < 19; digits++) {
+            if (negated > bound) {
+                return digits + sign;
+            }
+            bound *= 10;
+        }
+        return 19 + sign;
+    }
+
+    /**
+     * Computes the exact length of a join if all the elements are CharSequences or CharSeqs,
+     * or returns -1 if any of them is not, or the length exceeds the limit of a String.
+     */
+    static int joinedLength(Seq<?> seq, CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
+        long length = (long) prefix.length() + suffix.length() + (long) delimiter.length() * Math.max(0, seq.size() - 1);
+        for (int i = 0; i < seq.size(); i++) {
+            Object element = seq.get(i);
+            if (element instanceof CharSeq) {
+                length += ((CharSeq) element).length();
+            } else if (element instanceof CharSequence) {
+                length += ((CharSequence) element).length();
+            } else {
+                return -1;
+            }
+        }
+        return length <= Integer.MAX_VALUE - 8 ? (int) length : -1;
+    }
+}
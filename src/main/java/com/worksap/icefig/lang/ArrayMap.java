@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A compact map for a few entries, storing keys and values alternately in a flat array and looking keys up by a linear scan.
+ * <p>
+ * It costs a single array instead of a hash table with a node per entry. Once it grows beyond {@link #MAX_ARRAY_SIZE}
+ * entries, it moves them into a {@link HashMap} and delegates to it from then on.
+ * </p>
+ * <p>
+ * Entries are kept in the order a {@link HashMap} of the default capacity iterates them,
+ * so that the iteration order does not change when the map grows into one.
+ * </p>
+ */
+class ArrayMap<K, V> extends AbstractMap<K, V> {
+    static final int MAX_ARRAY_SIZE = 8;
+
+    private static final Object[] EMPTY_TABLE = {};
+
+    /*
+     * The key of the i-th entry is at table[2 * i], and its value at table[2 * i + 1].
+     */
+    private Object[] table;
+    private int size;
+    private int modCount;
+    private HashMap<K, V> delegate;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    ArrayMap() {
+        this.table = EMPTY_TABLE;
+    }
+
+    ArrayMap(Map<? extends K, ? extends V> m) {
+        if (m.size() > MAX_ARRAY_SIZE) {
+            this.delegate = new HashMap<>(m);
+        } else {
+            this.table = new Object[m.size() * 2];
+            putAll(m);
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate != null ? delegate.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate != null ? delegate.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (delegate != null) {
+            return delegate.get(key);
+        }
+        int i = indexOf(key);
+        return i < 0 ? null : (V) table[2 * i + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (delegate != null) {
+            return delegate.put(key, value);
+        }
+        int i = indexOf(key);
+        if (i >= 0) {
+            V old = (V) table[2 * i + 1];
+            table[2 * i + 1] = value;
+            return old;
+        }
+        if (size == MAX_ARRAY_SIZE) {
+            delegate = new HashMap<>(this);
+            table = null;
+            modCount++;
+            return delegate.put(key, value);
+        }
+        if (2 * size == table.length) {
+            Object[] grown = new Object[Math.min(Math.max(2 * size, 2) * 2, 2 * MAX_ARRAY_SIZE)];
+            System.arraycopy(table, 0, grown, 0, 2 * size);
+            table = grown;
+        }
+        int bucket = bucketOf(key);
+        for (i = size; i > 0 && bucketOf(table[2 * i - 2]) > bucket; i--);
+        System.arraycopy(table, 2 * i, table, 2 * i + 2, 2 * (size - i));
+        table[2 * i] = key;
+        table[2 * i + 1] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (delegate != null) {
+            return delegate.remove(key);
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V old = (V) table[2 * i + 1];
+        removeAt(i);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        delegate = null;
+        table = EMPTY_TABLE;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (delegate != null) {
+            delegate.forEach(action);
+            return;
+        }
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (int i = 0; i < size; i++) {
+            action.accept((K) table[2 * i], (V) table[2 * i + 1]);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            Object k = table[2 * i];
+            if (k == key || k != null && k.equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the bucket of the key in a HashMap of the default capacity
+     */
+    private static int bucketOf(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return (h ^ (h >>> 16)) & 15;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(table, 2 * i + 2, table, 2 * i, 2 * (size - i - 1));
+        size--;
+        table[2 * size] = null;
+        table[2 * size + 1] = null;
+        modCount++;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return ArrayMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ArrayMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (delegate != null) {
+                return delegate.entrySet().iterator();
+            }
+            return new Iterator<Map.Entry<K, V>>() {
+                int cursor;
+                int last = -1;
+                int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return cursor < size;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Map.Entry<K, V> next() {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (cursor >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    last = cursor++;
+                    return new Entry((K) table[2 * last], (V) table[2 * last + 1]);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    removeAt(last);
+                    cursor = last;
+                    last = -1;
+                    expectedModCount = modCount;
+                }
+            };
+        }
+    }
+
+    /**
+     * An entry holding its own key and value, so that it stays valid when the map changes afterwards.
+     * {@link #setValue(Object)} writes through to the map by key, as long as the key is still in it.
+     */
+    private class Entry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            if (containsKey(key)) {
+                put(key, value);
+            }
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
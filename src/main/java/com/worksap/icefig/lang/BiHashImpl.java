@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Map;
+
+/**
+ * The implementation of MutableHash which keeps a value-to-keys index, backed by a {@link ValueIndexedMap}.
+ */
+class BiHashImpl<K, V> extends HashImpl<K, V> {
+    BiHashImpl() {
+        super(new ValueIndexedMap<>());
+    }
+
+    BiHashImpl(Map<? extends K, ? extends V> m) {
+        super(new ValueIndexedMap<>(m));
+    }
+
+    @Override
+    protected <A, B> HashImpl<A, B> newInstance(Map<? extends A, ? extends B> m) {
+        return new BiHashImpl<>(m);
+    }
+
+    @Override
+    public Seq<K> keysOf(V value) {
+        return Seqs.newMutableSeq(indexed().keysOf(value));
+    }
+
+    @Override
+    public int count(V value) {
+        return indexed().count(value);
+    }
+
+    /**
+     * Returns a read-only view of the inverted hash, which reflects later changes of this hash.
+     * If there are duplicated values, one of their keys is kept.
+     * In-place methods on the view throw {@link UnsupportedOperationException}.
+     */
+    @Override
+    public MutableHash<V, K> invert() {
+        return new HashImpl<>(indexed().inverse());
+    }
+
+    private ValueIndexedMap<K, V> indexed() {
+        return (ValueIndexedMap<K, V>) map();
+    }
+}
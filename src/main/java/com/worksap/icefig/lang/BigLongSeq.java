@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A growable sequence of primitive long values with long indices, stored off the heap.
+ * <p>
+ * The values live in direct buffers of a fixed number of values (chunks), so the seq can hold more than
+ * Integer.MAX_VALUE values, grows without copying, and adds nothing for the garbage collector to scan.
+ * The memory of the chunks is released when the seq is garbage collected.
+ * </p>
+ * <p>
+ * This seq is not thread-safe for appends. Parallel scans by {@link #parallelStream()} split the index range evenly.
+ * </p>
+ *
+ * @see Seqs#newBigLongSeq()
+ */
+public final class BigLongSeq {
+    /**
+     * The default chunk has 2^20 values, that is 8MB.
+     */
+    static final int DEFAULT_CHUNK_SHIFT = 20;
+
+    private final int chunkShift;
+    private final long chunkMask;
+    private LongBuffer[] chunks = new LongBuffer[0];
+    private long size;
+
+    BigLongSeq(int chunkShift) {
+        if (chunkShift <= 0 || chunkShift > 27) {
+            throw new IllegalArgumentException("chunkShift should be within [1, 27].");
+        }
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the value at the index
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    public long get(long index) {
+        checkIndex(index);
+        return chunks[(int) (index >>> chunkShift)].get((int) (index & chunkMask));
+    }
+
+    /**
+     * Replaces the value at the index.
+     *
+     * @return the seq itself
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    public BigLongSeq set(long index, long value) {
+        checkIndex(index);
+        chunks[(int) (index >>> chunkShift)].put((int) (index & chunkMask), value);
+        return this;
+    }
+
+    /**
+     * Append the value at the end of the seq, allocating a new chunk if the last one is full.
+     *
+     * @return the seq itself
+     */
+    public BigLongSeq appendInPlace(long value) {
+        int chunk = (int) (size >>> chunkShift);
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunk + 1);
+            chunks[chunk] = ByteBuffer.allocateDirect(Long.BYTES << chunkShift).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        chunks[chunk].put((int) (size & chunkMask), value);
+        size++;
+        return this;
+    }
+
+    /**
+     * Append the values at the end of the seq.
+     *
+     * @return the seq itself
+     * @throws NullPointerException if values is null
+     */
+    public BigLongSeq appendInPlace(long... values) {
+        Objects.requireNonNull(values);
+        for (long value : values) {
+            appendInPlace(value);
+        }
+        return this;
+    }
+
+    /**
+     * Takes action on each value in order.
+     *
+     * @throws NullPointerException if action is null
+     */
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action);
+        forEach(0, size, action);
+    }
+
+    /**
+     * Slices the seq and takes action on each slice, copied to the heap as a {@link LongSeq}.
+     *
+     * @param n      the number of values in each slice except the last one
+     * @param action the action to take on each slice
+     * @throws IllegalArgumentException if <tt>n &lt;= 0</tt>
+     * @throws NullPointerException     if action is null
+     */
+    public void forEachSlice(int n, Consumer<LongSeq> action) {
+        Objects.requireNonNull(action);
+        if (n <= 0)
+            throw new IllegalArgumentException("n should be a positive number.");
+        for (long from = 0; from < size; from += n) {
+            long[] slice = new long[(int) Math.min(n, size - from)];
+            int[] i = {0};
+            forEach(from, from + slice.length, value -> slice[i[0]++] = value);
+            action.accept(new LongSeq(slice));
+        }
+    }
+
+    /**
+     * Performs a reduction on the values of this seq in order.
+     *
+     * @return the result of the reduction, which is identity if the seq is empty
+     * @throws NullPointerException if accumulator is null
+     */
+    public long reduce(long identity, LongBinaryOperator accumulator) {
+        Objects.requireNonNull(accumulator);
+        long[] result = {identity};
+        forEach(0, size, value -> result[0] = accumulator.applyAsLong(result[0], value));
+        return result[0];
+    }
+
+    /**
+     * @return the sum of the values, which overflows silently like {@link LongStream#sum()}
+     */
+    public long sum() {
+        return reduce(0, Long::sum);
+    }
+
+    public LongStream stream() {
+        return StreamSupport.longStream(new Splitr(0, size), false);
+    }
+
+    /**
+     * @return a parallel stream of the values, whose splits divide the index range evenly
+     */
+    public LongStream parallelStream() {
+        return StreamSupport.longStream(new Splitr(0, size), true);
+    }
+
+    @Override
+    public String toString() {
+        return "BigLongSeq[size=" + size + "]";
+    }
+
+    private void forEach(long from, long to, LongConsumer action) {
+        long i = from;
+        while (i < to) {
+            LongBuffer chunk = chunks[(int) (i >>> chunkShift)];
+            int offset = (int) (i & chunkMask);
+            int end = (int) Math.min(chunk.capacity(), offset + (to - i));
+            for (int j = offset; j < end; j++) {
+                action.accept(chunk.get(j));
+            }
+            i += end - offset;
+        }
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private final class Splitr implements Spliterator.OfLong {
+        private long index;
+        private final long fence;
+
+        Splitr(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            long mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Splitr prefix = new Splitr(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            forEach(index, fence, action);
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
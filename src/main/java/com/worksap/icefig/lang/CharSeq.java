@@ -127,6 +127,13 @@ public class CharSeq {
         return str.length();
     }
 
+    /**
+     * @return the characters of this CharSeq, without copying them
+     */
+    CharSequence chars() {
+        return str;
+    }
+
     /**
      * Returns {@code true} if, and only if, {@link #length()} is {@code 0}.
      *
@@ -460,6 +467,11 @@ public class CharSeq {
         return another instanceof CharSeq && str.equals(((CharSeq) another).str);
     }
 
+    @Override
+    public int hashCode() {
+        return str.hashCode();
+    }
+
     @Override
     public String toString() {
         return str;
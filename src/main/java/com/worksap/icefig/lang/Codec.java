@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes elements to and reads them from a binary stream, for the structures which store elements off the heap,
+ * such as {@link ExternalSort}, or for shipping them between processes.
+ * <p>
+ * {@link #read(DataInput)} should read exactly the bytes written by {@link #write(Object, DataOutput)}.
+ * </p>
+ *
+ * @see Codecs
+ */
+public interface Codec<T> {
+    /**
+     * Writes the value to the output.
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(Object, DataOutput)} from the input.
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Writes the value to the stream, without closing it.
+     */
+    default void writeTo(T value, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        write(value, data);
+        data.flush();
+    }
+
+    /**
+     * Writes the value to the buffer from its position, moving the position past the written bytes.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space
+     */
+    default void writeTo(T value, ByteBuffer buffer) {
+        try {
+            write(value, new DataOutputStream(new ByteBufferOutputStream(buffer)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the bytes of the value
+     */
+    default byte[] toBytes(T value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(value, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a value from the stream, without reading ahead of its bytes.
+     */
+    default T readFrom(InputStream in) throws IOException {
+        return read(new DataInputStream(in));
+    }
+
+    /**
+     * Reads a value from the buffer from its position, moving the position past the read bytes.
+     *
+     * @throws UncheckedIOException if the buffer does not hold a whole value
+     */
+    default T readFrom(ByteBuffer buffer) {
+        try {
+            return read(new DataInputStream(new ByteBufferInputStream(buffer)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a value from the bytes.
+     *
+     * @throws UncheckedIOException if the bytes do not hold a whole value
+     */
+    default T fromBytes(byte[] bytes) {
+        return readFrom(ByteBuffer.wrap(bytes));
+    }
+}
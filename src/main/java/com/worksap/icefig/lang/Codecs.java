@@ -0,0 +1,399 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Factory class for the codecs of common element types, and of Seq, Hash and CharSeq.
+ * <p>
+ * The structure codecs write a compact format: a varint length prefix followed by the elements,
+ * each written by the element codec. {@link #seqIterator(Codec, InputStream)} and
+ * {@link #hashIterator(Codec, Codec, InputStream)} read such a structure one element at a time.
+ * </p>
+ */
+public class Codecs {
+    private static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public void write(Long value, DataOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    private static final Codec<Double> DOUBLE = new Codec<Double>() {
+        @Override
+        public void write(Double value, DataOutput out) throws IOException {
+            out.writeDouble(value);
+        }
+
+        @Override
+        public Double read(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    private static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    private static final Codec<Integer> VAR_INT = new Codec<Integer>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            Varints.writeInt(out, value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return Varints.readInt(in);
+        }
+    };
+
+    private static final Codec<Long> VAR_LONG = new Codec<Long>() {
+        @Override
+        public void write(Long value, DataOutput out) throws IOException {
+            Varints.writeLong(out, value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return Varints.readLong(in);
+        }
+    };
+
+    private static final Codec<CharSeq> CHAR_SEQ = new Codec<CharSeq>() {
+        @Override
+        public void write(CharSeq value, DataOutput out) throws IOException {
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            Varints.writeUnsignedInt(out, bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public CharSeq read(DataInput in) throws IOException {
+            byte[] bytes = new byte[Varints.readLength(in)];
+            in.readFully(bytes);
+            return CharSeq.of(new String(bytes, StandardCharsets.UTF_8));
+        }
+    };
+
+    private static final Codec<IntSeq> INT_SEQ = new Codec<IntSeq>() {
+        @Override
+        public void write(IntSeq value, DataOutput out) throws IOException {
+            Varints.writeUnsignedInt(out, value.size());
+            for (int i = 0; i < value.size(); i++) {
+                Varints.writeInt(out, value.get(i));
+            }
+        }
+
+        @Override
+        public IntSeq read(DataInput in) throws IOException {
+            int[] values = new int[Varints.readLength(in)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Varints.readInt(in);
+            }
+            return new IntSeq(values);
+        }
+    };
+
+    private static final Codec<LongSeq> LONG_SEQ = new Codec<LongSeq>() {
+        @Override
+        public void write(LongSeq value, DataOutput out) throws IOException {
+            Varints.writeUnsignedInt(out, value.size());
+            for (int i = 0; i < value.size(); i++) {
+                Varints.writeLong(out, value.get(i));
+            }
+        }
+
+        @Override
+        public LongSeq read(DataInput in) throws IOException {
+            long[] values = new long[Varints.readLength(in)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Varints.readLong(in);
+            }
+            return new LongSeq(values);
+        }
+    };
+
+    /**
+     * The largest capacity presized from a length prefix, so that a corrupted length cannot exhaust the heap at once.
+     */
+    private static final int MAX_PRESIZE = 1 << 16;
+
+    private Codecs() {
+
+    }
+
+    /**
+     * @return the codec of non-null Integers, as 4 bytes each
+     */
+    public static Codec<Integer> ofInteger() {
+        return INTEGER;
+    }
+
+    /**
+     * @return the codec of non-null Longs, as 8 bytes each
+     */
+    public static Codec<Long> ofLong() {
+        return LONG;
+    }
+
+    /**
+     * @return the codec of non-null Doubles, as 8 bytes each
+     */
+    public static Codec<Double> ofDouble() {
+        return DOUBLE;
+    }
+
+    /**
+     * @return the codec of non-null Strings, as the length and the UTF-8 bytes. Unlike {@link DataOutput#writeUTF(String)},
+     * there is no limit on the length.
+     */
+    public static Codec<String> ofString() {
+        return STRING;
+    }
+
+    /**
+     * @return the codec of non-null Integers as zigzag varints, taking 1 byte for values within [-64, 64)
+     */
+    public static Codec<Integer> ofVarInt() {
+        return VAR_INT;
+    }
+
+    /**
+     * @return the codec of non-null Longs as zigzag varints, taking 1 byte for values within [-64, 64)
+     */
+    public static Codec<Long> ofVarLong() {
+        return VAR_LONG;
+    }
+
+    /**
+     * @return the codec of non-null CharSeqs, as the varint length and the UTF-8 bytes
+     */
+    public static Codec<CharSeq> ofCharSeq() {
+        return CHAR_SEQ;
+    }
+
+    /**
+     * @return the codec of non-null IntSeqs, as the varint size and the values as zigzag varints, without boxing
+     */
+    public static Codec<IntSeq> ofIntSeq() {
+        return INT_SEQ;
+    }
+
+    /**
+     * @return the codec of non-null LongSeqs, as the varint size and the values as zigzag varints, without boxing
+     */
+    public static Codec<LongSeq> ofLongSeq() {
+        return LONG_SEQ;
+    }
+
+    /**
+     * @return the codec which allows null values, writing a byte of whether the value is present before it
+     * @throws NullPointerException if codec is null
+     */
+    public static <T> Codec<T> nullable(Codec<T> codec) {
+        Objects.requireNonNull(codec);
+        return new Codec<T>() {
+            @Override
+            public void write(T value, DataOutput out) throws IOException {
+                out.writeBoolean(value != null);
+                if (value != null) {
+                    codec.write(value, out);
+                }
+            }
+
+            @Override
+            public T read(DataInput in) throws IOException {
+                return in.readBoolean() ? codec.read(in) : null;
+            }
+        };
+    }
+
+    /**
+     * @return the codec of non-null Seqs, as the varint size and the elements written by elementCodec
+     * @throws NullPointerException if elementCodec is null
+     */
+    public static <T> Codec<Seq<T>> ofSeq(Codec<T> elementCodec) {
+        Objects.requireNonNull(elementCodec);
+        return new Codec<Seq<T>>() {
+            @Override
+            public void write(Seq<T> value, DataOutput out) throws IOException {
+                Varints.writeUnsignedInt(out, value.size());
+                for (int i = 0; i < value.size(); i++) {
+                    elementCodec.write(value.get(i), out);
+                }
+            }
+
+            @Override
+            public Seq<T> read(DataInput in) throws IOException {
+                int size = Varints.readLength(in);
+                MutableSeq<T> seq = new SeqImpl<>(Math.min(size, MAX_PRESIZE));
+                for (int i = 0; i < size; i++) {
+                    seq.appendInPlace(elementCodec.read(in));
+                }
+                return seq;
+            }
+        };
+    }
+
+    /**
+     * @return the codec of non-null Hashes, as the varint size and the entries, each of which is the key
+     * written by keyCodec followed by the value written by valueCodec
+     * @throws NullPointerException if keyCodec or valueCodec is null
+     */
+    public static <K, V> Codec<Hash<K, V>> ofHash(Codec<K> keyCodec, Codec<V> valueCodec) {
+        Objects.requireNonNull(keyCodec);
+        Objects.requireNonNull(valueCodec);
+        return new Codec<Hash<K, V>>() {
+            @Override
+            public void write(Hash<K, V> value, DataOutput out) throws IOException {
+                Varints.writeUnsignedInt(out, value.size());
+                Iterable<Map.Entry<K, V>> entries = value instanceof HashImpl
+                        ? ((HashImpl<K, V>) value).map().entrySet()
+                        : value.entrySeq().toArrayList();
+                for (Map.Entry<K, V> entry : entries) {
+                    keyCodec.write(entry.getKey(), out);
+                    valueCodec.write(entry.getValue(), out);
+                }
+            }
+
+            @Override
+            public Hash<K, V> read(DataInput in) throws IOException {
+                int size = Varints.readLength(in);
+                HashBuilder<K, V> builder = new HashBuilder<>(Math.min(size, MAX_PRESIZE));
+                for (int i = 0; i < size; i++) {
+                    K key = keyCodec.read(in);
+                    builder.put(key, valueCodec.read(in));
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    /**
+     * Reads a Seq written by {@link #ofSeq(Codec)} from the stream lazily, one element at a time,
+     * without materializing the seq. The stream is not closed.
+     *
+     * @throws NullPointerException if elementCodec or in is null
+     * @throws UncheckedIOException if the size of the seq cannot be read, or later, if an element cannot be read
+     */
+    public static <T> Iterator<T> seqIterator(Codec<T> elementCodec, InputStream in) {
+        Objects.requireNonNull(elementCodec);
+        Objects.requireNonNull(in);
+        DataInput data = new DataInputStream(in);
+        return new LengthPrefixedIterator<T>(data) {
+            @Override
+            T readElement() throws IOException {
+                return elementCodec.read(data);
+            }
+        };
+    }
+
+    /**
+     * Reads a Hash written by {@link #ofHash(Codec, Codec)} from the stream lazily, one entry at a time,
+     * without materializing the hash. The stream is not closed.
+     *
+     * @throws NullPointerException if keyCodec, valueCodec or in is null
+     * @throws UncheckedIOException if the size of the hash cannot be read, or later, if an entry cannot be read
+     */
+    public static <K, V> Iterator<Map.Entry<K, V>> hashIterator(Codec<K> keyCodec, Codec<V> valueCodec, InputStream in) {
+        Objects.requireNonNull(keyCodec);
+        Objects.requireNonNull(valueCodec);
+        Objects.requireNonNull(in);
+        DataInput data = new DataInputStream(in);
+        return new LengthPrefixedIterator<Map.Entry<K, V>>(data) {
+            @Override
+            Map.Entry<K, V> readElement() throws IOException {
+                K key = keyCodec.read(data);
+                return new AbstractMap.SimpleImmutableEntry<>(key, valueCodec.read(data));
+            }
+        };
+    }
+
+    private abstract static class LengthPrefixedIterator<E> implements Iterator<E> {
+        private int remaining;
+
+        private LengthPrefixedIterator(DataInput in) {
+            try {
+                this.remaining = Varints.readLength(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract E readElement() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            try {
+                return readElement();
+            } catch (IOException e) {
+                remaining = 0;
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
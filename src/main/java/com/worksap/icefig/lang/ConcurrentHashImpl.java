@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The thread-safe implementation of MutableHash, backed by a {@link ConcurrentHashMap}.
+ */
+class ConcurrentHashImpl<K, V> extends HashImpl<K, V> {
+
+    ConcurrentHashImpl() {
+        super(new ConcurrentHashMap<>());
+    }
+
+    ConcurrentHashImpl(Map<? extends K, ? extends V> m) {
+        super(new ConcurrentHashMap<>(m));
+    }
+
+    @Override
+    protected <A, B> HashImpl<A, B> newInstance(Map<? extends A, ? extends B> m) {
+        return new ConcurrentHashImpl<>(m);
+    }
+
+    /**
+     * Copies the mappings, since other threads may keep changing the backing map.
+     */
+    @Override
+    public Hash<K, V> snapshot() {
+        return newInstance(map()).freeze();
+    }
+}
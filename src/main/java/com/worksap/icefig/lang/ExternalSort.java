@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterators;
+
+/**
+ * External merge sort, for sorting more elements than fit in the heap.
+ * <p>
+ * The source is read in runs of at most runSize elements, which is the memory budget of the sort.
+ * Each run is sorted in memory and spilled to a temp file through the codec, and the runs are then merged
+ * with a heap of their heads, at most {@link #MAX_FAN_IN} at a time. If the whole source fits in one run,
+ * nothing is written to disk.
+ * </p>
+ * <p>
+ * The sort is stable. The temp files are deleted when the result has been iterated to the end,
+ * when it is closed, or when the sort fails.
+ * </p>
+ *
+ * @see Seqs#newExternalSort(Comparator, Codec)
+ */
+public final class ExternalSort<T> {
+    /**
+     * The default number of elements sorted in memory at a time.
+     */
+    public static final int DEFAULT_RUN_SIZE = 1 << 16;
+    /**
+     * The maximum number of runs merged at a time, bounding the number of open files.
+     */
+    public static final int MAX_FAN_IN = 64;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Comparator<? super T> comparator;
+    private final Codec<T> codec;
+    private final int runSize;
+    private final Path tempDirectory;
+
+    ExternalSort(Comparator<? super T> comparator, Codec<T> codec, int runSize, Path tempDirectory) {
+        Objects.requireNonNull(comparator);
+        Objects.requireNonNull(codec);
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("runSize should be a positive number.");
+        }
+        this.comparator = comparator;
+        this.codec = codec;
+        this.runSize = runSize;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * A lazily merged sorted result. It should be closed if it is not iterated to the end, to delete the temp files.
+     */
+    public interface SortedIterator<T> extends Iterator<T>, AutoCloseable {
+        /**
+         * Deletes the remaining temp files. Further calls of {@link #next()} throw {@link NoSuchElementException}.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Sorts the elements of the source, returning an iterator which merges the sorted runs lazily.
+     *
+     * @throws NullPointerException if source is null
+     * @throws UncheckedIOException if the runs cannot be written to the temp files
+     */
+    public SortedIterator<T> sort(Iterator<? extends T> source) {
+        Objects.requireNonNull(source);
+        List<Path> runs = new ArrayList<>();
+        try {
+            ArrayList<T> buffer = new ArrayList<>();
+            while (source.hasNext()) {
+                buffer.add(source.next());
+                if (buffer.size() == runSize && source.hasNext()) {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                }
+            }
+            buffer.sort(comparator);
+            if (runs.isEmpty()) {
+                return new InMemoryIterator<>(buffer.iterator());
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(spill(buffer));
+            }
+            buffer = null;
+            while (runs.size() > MAX_FAN_IN) {
+                runs = mergePass(runs);
+            }
+            return new MergeIterator(runs);
+        } catch (IOException e) {
+            deleteAll(runs);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException | Error e) {
+            deleteAll(runs);
+            throw e;
+        }
+    }
+
+    /**
+     * Sorts the elements of the seq into a new seq.
+     *
+     * @throws NullPointerException if seq is null
+     * @throws UncheckedIOException if the runs cannot be written to or read from the temp files
+     */
+    public MutableSeq<T> sort(Seq<? extends T> seq) {
+        Objects.requireNonNull(seq);
+        MutableSeq<T> result = new SeqImpl<>(seq.size());
+        try (SortedIterator<T> sorted = sort(Spliterators.iterator(seq.spliterator()))) {
+            sorted.forEachRemaining(result::appendInPlace);
+        }
+        return result;
+    }
+
+    private Path spill(ArrayList<T> buffer) throws IOException {
+        buffer.sort(comparator);
+        Path run = createRun();
+        try (DataOutputStream out = openOutput(run)) {
+            out.writeInt(buffer.size());
+            for (T t : buffer) {
+                codec.write(t, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        return run;
+    }
+
+    /**
+     * Merges each group of MAX_FAN_IN runs into one, deleting the merged runs.
+     */
+    private List<Path> mergePass(List<Path> runs) throws IOException {
+        List<Path> merged = new ArrayList<>();
+        try {
+            for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                List<Path> group = runs.subList(from, Math.min(from + MAX_FAN_IN, runs.size()));
+                Path run = createRun();
+                merged.add(run);
+                try (MergeIterator iterator = new MergeIterator(new ArrayList<>(group));
+                     DataOutputStream out = openOutput(run)) {
+                    out.writeInt(iterator.remaining);
+                    while (iterator.hasNext()) {
+                        codec.write(iterator.next(), out);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteAll(merged);
+            throw e;
+        }
+        return merged;
+    }
+
+    private Path createRun() throws IOException {
+        return tempDirectory == null
+                ? Files.createTempFile("icefig-sort-", ".run")
+                : Files.createTempFile(tempDirectory, "icefig-sort-", ".run");
+    }
+
+    private static DataOutputStream openOutput(Path run) throws IOException {
+        FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+    }
+
+    private static void deleteAll(List<Path> runs) {
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException ignored) {
+                // the file is left in the temp directory
+            }
+        }
+    }
+
+    private static final class InMemoryIterator<T> implements SortedIterator<T> {
+        private Iterator<T> iterator;
+
+        private InMemoryIterator(Iterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator != null && iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return iterator.next();
+        }
+
+        @Override
+        public void close() {
+            iterator = null;
+        }
+    }
+
+    /**
+     * A sorted run file being read, with its current head element.
+     */
+    private final class Run {
+        private final int index;
+        private final Path path;
+        private final DataInputStream in;
+        private int remaining;
+        private T head;
+
+        private Run(int index, Path path) throws IOException {
+            this.index = index;
+            this.path = path;
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+                this.remaining = in.readInt();
+            } catch (IOException | RuntimeException e) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Reads the next element as the head, or returns false at the end of the run.
+         */
+        private boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            head = codec.read(in);
+            return true;
+        }
+    }
+
+    private final class MergeIterator implements SortedIterator<T> {
+        private final List<Run> runs = new ArrayList<>();
+        private final List<Path> paths;
+        private final PriorityQueue<Run> heads;
+        private int remaining;
+
+        private MergeIterator(List<Path> paths) throws IOException {
+            this.paths = paths;
+            // equal elements are taken from the earlier run, keeping the sort stable
+            this.heads = new PriorityQueue<>(paths.size(), (a, b) -> {
+                int cmp = comparator.compare(a.head, b.head);
+                return cmp != 0 ? cmp : Integer.compare(a.index, b.index);
+            });
+            try {
+                for (int i = 0; i < paths.size(); i++) {
+                    Run run = new Run(i, paths.get(i));
+                    runs.add(run);
+                    remaining += run.remaining;
+                    if (run.advance()) {
+                        heads.add(run);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Run run = heads.poll();
+            T result = run.head;
+            remaining--;
+            try {
+                if (run.advance()) {
+                    heads.add(run);
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            if (heads.isEmpty()) {
+                close();
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            heads.clear();
+            for (Run run : runs) {
+                try {
+                    run.in.close();
+                } catch (IOException ignored) {
+                    // the file is deleted anyway
+                }
+            }
+            runs.clear();
+            deleteAll(paths);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A lazily evaluated sequence of elements, such as the result of {@link Range#map(Function)}.
+ * <p>
+ * Intermediate operations (map, filter, drop, take, ...) only describe the computation and return a new generator
+ * in O(1) time. The elements are produced one at a time when a terminal operation (forEach, reduce, count, ...)
+ * or an iterator pulls them, passing each element through all the operations before the next one is generated,
+ * so that nothing is materialized. findFirst and the take operations stop generating as soon as possible,
+ * which makes them usable on infinite generators.
+ * </p>
+ * <p>
+ * A generator can be iterated more than once; each iteration generates the elements again from the source.
+ * </p>
+ */
+public final class Generator<T> implements Iterable<T> {
+    /**
+     * The largest capacity a slice is presized to, since n may be much larger than the number of elements.
+     */
+    private static final int MAX_SLICE_PRESIZE = 1 << 10;
+
+    private final Supplier<Iterator<T>> source;
+
+    Generator(Supplier<Iterator<T>> source) {
+        this.source = source;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return source.get();
+    }
+
+    /**
+     * Transform each element of the generator, lazily.
+     *
+     * @throws NullPointerException if func is null
+     */
+    public <R> Generator<R> map(Function<T, R> func) {
+        Objects.requireNonNull(func);
+        return new Generator<>(() -> {
+            Iterator<T> itr = source.get();
+            return new Iterator<R>() {
+                @Override
+                public boolean hasNext() {
+                    return itr.hasNext();
+                }
+
+                @Override
+                public R next() {
+                    return func.apply(itr.next());
+                }
+            };
+        });
+    }
+
+    /**
+     * Keep the elements which satisfy the condition, lazily.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public Generator<T> filter(Predicate<T> condition) {
+        Objects.requireNonNull(condition);
+        return new Generator<>(() -> {
+            Iterator<T> itr = source.get();
+            return new Lookahead<T>() {
+                @Override
+                boolean advance() {
+                    while (itr.hasNext()) {
+                        T candidate = itr.next();
+                        if (condition.test(candidate)) {
+                            return found(candidate);
+                        }
+                    }
+                    return false;
+                }
+            };
+        });
+    }
+
+    /**
+     * Keep the elements which don't satisfy the condition, lazily.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public Generator<T> reject(Predicate<T> condition) {
+        Objects.requireNonNull(condition);
+        return filter(condition.negate());
+    }
+
+    /**
+     * Skip the first n elements, lazily.
+     *
+     * @throws IllegalArgumentException if n &lt; 0
+     */
+    public Generator<T> drop(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n should not be negative.");
+        }
+        return new Generator<>(() -> {
+            Iterator<T> itr = source.get();
+            for (long i = 0; i < n && itr.hasNext(); i++) {
+                itr.next();
+            }
+            return itr;
+        });
+    }
+
+    /**
+     * Skip the elements at the front which satisfy the condition, lazily.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public Generator<T> dropWhile(Predicate<T> condition) {
+        Objects.requireNonNull(condition);
+        return new Generator<>(() -> {
+            Iterator<T> itr = source.get();
+            return new Lookahead<T>() {
+                boolean dropping = true;
+
+                @Override
+                boolean advance() {
+                    while (itr.hasNext()) {
+                        T candidate = itr.next();
+                        if (!dropping || !condition.test(candidate)) {
+                            dropping = false;
+                            return found(candidate);
+                        }
+                    }
+                    return false;
+                }
+            };
+        });
+    }
+
+    /**
+     * Keep only the first n elements, lazily. No element after them is generated.
+     *
+     * @throws IllegalArgumentException if n &lt; 0
+     */
+    public Generator<T> take(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n should not be negative.");
+        }
+        return new Generator<>(() -> {
+            Iterator<T> itr = source.get();
+            return new Iterator<T>() {
+                long remaining = n;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0 && itr.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    if (remaining <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    remaining--;
+                    return itr.next();
+                }
+            };
+        });
+    }
+
+    /**
+     * Keep the elements at the front which satisfy the condition, lazily.
+     * No element is generated after the first one which doesn't satisfy the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public Generator<T> takeWhile(Predicate<T> condition) {
+        Objects.requireNonNull(condition);
+        return new Generator<>(() -> {
+            Iterator<T> itr = source.get();
+            return new Lookahead<T>() {
+                boolean taking = true;
+
+                @Override
+                boolean advance() {
+                    if (taking && itr.hasNext()) {
+                        T candidate = itr.next();
+                        if (condition.test(candidate)) {
+                            return found(candidate);
+                        }
+                        taking = false;
+                    }
+                    return false;
+                }
+            };
+        });
+    }
+
+    /**
+     * Find the first element which satisfies the condition, generating no element after it.
+     *
+     * @return the first element which satisfies the condition, or null if no such element
+     * @throws NullPointerException if condition is null
+     */
+    public T findFirst(Predicate<T> condition) {
+        Objects.requireNonNull(condition);
+        for (T element : this) {
+            if (condition.test(element)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check whether any element satisfies the condition, generating no element after the first one which does.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public boolean any(Predicate<T> condition) {
+        Objects.requireNonNull(condition);
+        for (T element : this) {
+            if (condition.test(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs a reduction on the elements, using the provided binary operation. It never returns on infinite generators.
+     *
+     * @return the result of the reduction, or null if there is no element
+     * @throws NullPointerException if accumulator is null
+     */
+    public T reduce(BinaryOperator<T> accumulator) {
+        Objects.requireNonNull(accumulator);
+        Iterator<T> itr = iterator();
+        if (!itr.hasNext()) {
+            return null;
+        }
+        T result = itr.next();
+        while (itr.hasNext()) {
+            result = accumulator.apply(result, itr.next());
+        }
+        return result;
+    }
+
+    /**
+     * Performs a reduction on the elements, using the provided initial value and binary function.
+     * It never returns on infinite generators.
+     *
+     * @throws NullPointerException if accumulator is null
+     */
+    public <R> R reduce(R init, BiFunction<R, T, R> accumulator) {
+        Objects.requireNonNull(accumulator);
+        R result = init;
+        for (T element : this) {
+            result = accumulator.apply(result, element);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of the elements. It never returns on infinite generators.
+     */
+    public long count() {
+        long count = 0;
+        Iterator<T> itr = iterator();
+        while (itr.hasNext()) {
+            itr.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Takes action on each slice of n consecutive elements, the last slice may have less elements.
+     * Only one slice is held in memory at a time.
+     *
+     * @throws IllegalArgumentException if <tt>n &lt;= 0</tt>
+     * @throws NullPointerException     if action is null
+     */
+    public void forEachSlice(int n, Consumer<Seq<T>> action) {
+        Objects.requireNonNull(action);
+        if (n <= 0) {
+            throw new IllegalArgumentException("n should be a positive number.");
+        }
+        Iterator<T> itr = iterator();
+        while (itr.hasNext()) {
+            MutableSeq<T> slice = new SeqImpl<>(Math.min(n, MAX_SLICE_PRESIZE));
+            while (slice.size() < n && itr.hasNext()) {
+                slice.appendInPlace(itr.next());
+            }
+            action.accept(slice);
+        }
+    }
+
+    /**
+     * Collects all the elements into a new seq. It never returns on infinite generators.
+     */
+    public Seq<T> toSeq() {
+        return toMutableSeq();
+    }
+
+    /**
+     * Collects all the elements into a new mutable seq. It never returns on infinite generators.
+     */
+    public MutableSeq<T> toMutableSeq() {
+        MutableSeq<T> seq = Seqs.newMutableSeq();
+        forEach(seq::appendInPlace);
+        return seq;
+    }
+
+    /**
+     * An iterator which finds its next element ahead of time, for the operations which may skip elements.
+     */
+    private abstract static class Lookahead<T> implements Iterator<T> {
+        private T next;
+        private boolean ready;
+
+        /**
+         * Looks for the next element, and passes it to {@link #found(Object)} if any.
+         *
+         * @return whether there is a next element
+         */
+        abstract boolean advance();
+
+        final boolean found(T element) {
+            next = element;
+            return ready = true;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            return ready || advance();
+        }
+
+        @Override
+        public final T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            T element = next;
+            next = null;
+            return element;
+        }
+    }
+}
@@ -246,5 +246,8 @@ public interface Hash<K, V> {
      */
     int countIf(BiPredicate<K, V> condition);
 
+    /**
+     * Copy the mappings of the hash into a new HashMap. Changes of the returned map do not affect the hash.
+     */
     HashMap<K,V> toHashMap();
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builder to construct a {@link Hash} by putting key-value pairs in place, without copying the hash on each put.
+ * <p>
+ * {@link #build()} hands the mappings over to the resulting frozen hash without copying them,
+ * after which the builder can no longer be used.
+ * </p>
+ *
+ * @see Hashes#newHashBuilder()
+ */
+public final class HashBuilder<K, V> {
+    private MutableHash<K, V> hash;
+
+    HashBuilder() {
+        this.hash = new HashImpl<>();
+    }
+
+    HashBuilder(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize should not be negative.");
+        }
+        if (expectedSize <= ArrayMap.MAX_ARRAY_SIZE) {
+            this.hash = new HashImpl<>();
+        } else {
+            this.hash = new HashImpl<>(new HashMap<>((int) (expectedSize / 0.75f) + 1));
+        }
+    }
+
+    /**
+     * Associates the value with the key in the hash being built.
+     *
+     * @return the builder itself
+     * @throws IllegalStateException if the hash has already been built
+     */
+    public HashBuilder<K, V> put(K k, V v) {
+        hash().putInPlace(k, v);
+        return this;
+    }
+
+    /**
+     * Puts all the mappings of the map into the hash being built.
+     *
+     * @return the builder itself
+     * @throws NullPointerException  if map is null
+     * @throws IllegalStateException if the hash has already been built
+     */
+    public HashBuilder<K, V> putAll(Map<? extends K, ? extends V> map) {
+        Objects.requireNonNull(map);
+        MutableHash<K, V> hash = hash();
+        map.forEach(hash::putInPlace);
+        return this;
+    }
+
+    /**
+     * Puts all the mappings of another hash into the hash being built.
+     *
+     * @return the builder itself
+     * @throws NullPointerException  if another is null
+     * @throws IllegalStateException if the hash has already been built
+     */
+    public HashBuilder<K, V> putAll(Hash<? extends K, ? extends V> another) {
+        Objects.requireNonNull(another);
+        hash().mergeInPlace(another);
+        return this;
+    }
+
+    /**
+     * @return the number of mappings put so far
+     * @throws IllegalStateException if the hash has already been built
+     */
+    public int size() {
+        return hash().size();
+    }
+
+    /**
+     * Returns the frozen hash of all mappings put, in O(1) time. The builder can not be used afterwards.
+     *
+     * @return the hash built
+     * @throws IllegalStateException if the hash has already been built
+     */
+    public Hash<K, V> build() {
+        Hash<K, V> result = hash().freeze();
+        hash = null;
+        return result;
+    }
+
+    private MutableHash<K, V> hash() {
+        if (hash == null) {
+            throw new IllegalStateException("The hash has already been built.");
+        }
+        return hash;
+    }
+}
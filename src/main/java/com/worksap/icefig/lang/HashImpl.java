@@ -16,10 +16,13 @@
 
 package com.worksap.icefig.lang;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.HashMap;
 import java.util.Objects;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -28,14 +31,65 @@ import java.util.function.BiPredicate;
  * Created by lijunxiao on 8/6/15.
  */
 class HashImpl<K, V> implements MutableHash<K, V> {
-    private HashMap<K, V> hash;
+    private Map<K, V> hash;
+
+    /*
+     * A frozen hash rejects all in-place changes.
+     * A shared hash has handed its map to a snapshot, and copies it before the next in-place change.
+     */
+    private boolean frozen;
+    private boolean shared;
 
     protected HashImpl() {
-        this.hash = new HashMap<>();
+        this(new ArrayMap<>());
+    }
+
+    /**
+     * Wraps the given map as the backing storage of this hash. The map is not copied.
+     */
+    protected HashImpl(Map<K, V> hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Creates a new hash of the same kind as this one, containing the mappings of the given map.
+     * Non in-place methods build their results on it, so that subclasses keep their characteristics.
+     */
+    protected <A, B> HashImpl<A, B> newInstance(Map<? extends A, ? extends B> m) {
+        return new HashImpl<>(newMap(m));
     }
 
-    protected HashImpl(Map<? extends K, ? extends V> m) {
-        this.hash = new HashMap<>(m);
+    /**
+     * Copies the map into a compact {@link ArrayMap} if it is small, otherwise into a {@link HashMap}.
+     */
+    static <A, B> Map<A, B> newMap(Map<? extends A, ? extends B> m) {
+        if (m.size() <= ArrayMap.MAX_ARRAY_SIZE) {
+            return new ArrayMap<>(m);
+        }
+        return new HashMap<>(m);
+    }
+
+    /**
+     * @return the current backing map, for reading only
+     */
+    protected Map<K, V> map() {
+        return hash;
+    }
+
+    /**
+     * Returns the backing map for an in-place change, copying it first if it is shared with a snapshot.
+     *
+     * @throws UnsupportedOperationException if this hash has been frozen
+     */
+    private Map<K, V> mutableMap() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The hash has been frozen.");
+        }
+        if (shared) {
+            hash = newInstance(hash).hash;
+            shared = false;
+        }
+        return hash;
     }
 
     @Override
@@ -74,6 +128,11 @@ class HashImpl<K, V> implements MutableHash<K, V> {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return hash.hashCode();
+    }
+
     @Override
     public int size() {
         return hash.size();
@@ -96,86 +155,78 @@ class HashImpl<K, V> implements MutableHash<K, V> {
 
     @Override
     public Seq<Map.Entry<K, V>> entrySeq() {
-        return Seqs.newMutableSeq(hash.entrySet());
+        // entries can write through to the backing map, which must not be shared with a snapshot
+        if (frozen) {
+            MutableSeq<Map.Entry<K, V>> entries = new SeqImpl<>(hash.size());
+            hash.forEach((k, v) -> entries.appendInPlace(new AbstractMap.SimpleImmutableEntry<>(k, v)));
+            return entries;
+        }
+        return Seqs.newMutableSeq(mutableMap().entrySet());
     }
 
     @Override
     public MutableHash<K, V> put(K k, V v) {
-        Map<K, V> newHash = new HashMap<>(hash);
-        newHash.put(k, v);
-        return new HashImpl<>(newHash);
+        return newInstance(hash).putInPlace(k, v);
     }
 
     @Override
     public MutableHash<K, V> putIfAbsent(K k, V v) {
-        Map<K, V> newHash = new HashMap<>(hash);
-        newHash.putIfAbsent(k, v);
-        return new HashImpl<>(newHash);
+        return newInstance(hash).putIfAbsentInPlace(k, v);
     }
 
     @Override
     public MutableHash<K, V> filter(BiPredicate<K, V> condition) {
         Objects.requireNonNull(condition);
-        Map<K, V> newHash = new HashMap<>();
+        HashImpl<K, V> newHash = newInstance(Collections.emptyMap());
 
         this.hash.forEach((k, v) -> {
             if (condition.test(k, v)) {
-                newHash.put(k, v);
+                newHash.putInPlace(k, v);
             }
         });
-        return new HashImpl<>(newHash);
+        return newHash;
     }
 
     @Override
     public MutableHash<K, V> reject(BiPredicate<K, V> condition) {
         Objects.requireNonNull(condition);
-        Map<K, V> newHash = new HashMap<>();
+        HashImpl<K, V> newHash = newInstance(Collections.emptyMap());
 
         hash.forEach((k, v) -> {
             if (!condition.test(k, v)) {
-                newHash.put(k, v);
+                newHash.putInPlace(k, v);
             }
         });
-        return new HashImpl<>(newHash);
+        return newHash;
     }
 
     @Override
     public MutableHash<V, K> invert() {
-        Map<V, K> newHash = new HashMap<>();
+        HashImpl<V, K> newHash = newInstance(Collections.emptyMap());
 
-        hash.forEach((k, v) -> newHash.put(v, k));
-        return new HashImpl<>(newHash);
+        hash.forEach((k, v) -> newHash.putInPlace(v, k));
+        return newHash;
     }
 
     @Override
     public MutableHash<K, V> merge(Hash<? extends K, ? extends V> another) {
-        Map<K, V> newHash = new HashMap<>(hash);
-        if (another != null) {
-            another.entrySeq().forEach(entry -> {
-                newHash.put(entry.getKey(), entry.getValue());
-            });
-        }
-        return new HashImpl<>(newHash);
+        return newInstance(hash).mergeInPlace(another);
     }
 
     @Override
     public MutableHash<K, V> remove(K k) {
-        Map<K, V> newHash = new HashMap<>(hash);
-        newHash.remove(k);
-        return new HashImpl<>(newHash);
+        return newInstance(hash).removeInPlace(k);
     }
 
     @Override
     public MutableHash<K, V> remove(K k, V v) {
-        Map<K, V> newHash = new HashMap<>(hash);
-        newHash.remove(k, v);
-        return new HashImpl<>(newHash);
+        return newInstance(hash).removeInPlace(k, v);
     }
 
     @Override
     public MutableHash<K, V> filterInPlace(BiPredicate<K, V> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<Map.Entry<K, V>> each = hash.entrySet().iterator();
+        final Iterator<Map.Entry<K, V>> each = mutableMap().entrySet().iterator();
         while (each.hasNext()) {
             Map.Entry<K, V> nextEntry = each.next();
             if (!condition.test(nextEntry.getKey(), nextEntry.getValue())) {
@@ -188,7 +239,7 @@ class HashImpl<K, V> implements MutableHash<K, V> {
     @Override
     public MutableHash<K, V> rejectInPlace(BiPredicate<K, V> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<Map.Entry<K, V>> each = hash.entrySet().iterator();
+        final Iterator<Map.Entry<K, V>> each = mutableMap().entrySet().iterator();
         while (each.hasNext()) {
             Map.Entry<K, V> nextEntry = each.next();
             if (condition.test(nextEntry.getKey(), nextEntry.getValue())) {
@@ -202,7 +253,7 @@ class HashImpl<K, V> implements MutableHash<K, V> {
     public MutableHash<K, V> mergeInPlace(Hash<? extends K, ? extends V> another) {
         if (another != null) {
             another.entrySeq().forEach(entry -> {
-                hash.put(entry.getKey(), entry.getValue());
+                mutableMap().put(entry.getKey(), entry.getValue());
             });
         }
         return this;
@@ -210,50 +261,86 @@ class HashImpl<K, V> implements MutableHash<K, V> {
 
     @Override
     public MutableHash<K, V> clear() {
-        hash.clear();
+        mutableMap().clear();
         return this;
     }
 
     @Override
     public MutableHash<K, V> replaceInPlace(K k, V v) {
-        hash.replace(k, v);
+        mutableMap().replace(k, v);
         return this;
     }
 
     @Override
     public MutableHash<K, V> replaceInPlace(K k, V oldValue, V newValue) {
-        hash.replace(k, oldValue, newValue);
+        mutableMap().replace(k, oldValue, newValue);
         return this;
     }
 
     @Override
     public MutableHash<K, V> replaceAllInPlace(BiFunction<? super K, ? super V, ? extends V> function) {
         Objects.requireNonNull(function);
-        hash.replaceAll(function);
+        mutableMap().replaceAll(function);
         return this;
     }
 
+    @Override
+    public MutableHash<K, V> computeInPlace(K k, BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        mutableMap().compute(k, function);
+        return this;
+    }
+
+    @Override
+    public MutableHash<K, V> mergeInPlace(K k, V v, BiFunction<? super V, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        mutableMap().merge(k, v, function);
+        return this;
+    }
+
+    @Override
+    public MutableHash<K, V> incrementInPlace(K k, V delta) {
+        Objects.requireNonNull(delta);
+        return mergeInPlace(k, delta, HashImpl::add);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V add(V a, V b) {
+        if (a instanceof Integer && b instanceof Integer) {
+            return (V) Integer.valueOf((Integer) a + (Integer) b);
+        } else if (a instanceof Long && b instanceof Long) {
+            return (V) Long.valueOf((Long) a + (Long) b);
+        } else if (a instanceof Double && b instanceof Double) {
+            return (V) Double.valueOf((Double) a + (Double) b);
+        } else if (a instanceof BigInteger && b instanceof BigInteger) {
+            return (V) ((BigInteger) a).add((BigInteger) b);
+        } else if (a instanceof BigDecimal && b instanceof BigDecimal) {
+            return (V) ((BigDecimal) a).add((BigDecimal) b);
+        }
+        throw new IllegalArgumentException("Cannot increment " + a.getClass().getTypeName() + " by " + b.getClass().getTypeName());
+    }
+
     @Override
     public MutableHash<K, V> putInPlace(K k, V v) {
-        hash.put(k, v);
+        mutableMap().put(k, v);
         return this;
     }
 
     @Override
     public MutableHash<K, V> putIfAbsentInPlace(K k, V v) {
-        hash.putIfAbsent(k, v);
+        mutableMap().putIfAbsent(k, v);
         return this;
     }
 
     @Override
     public MutableHash<K, V> removeInPlace(K k) {
-        hash.remove(k);
+        mutableMap().remove(k);
         return this;
     }
 
     @Override
     public MutableHash<K, V> removeInPlace(K k, V v) {
-        hash.remove(k, v);
+        mutableMap().remove(k, v);
         return this;
     }
 
@@ -271,24 +358,18 @@ class HashImpl<K, V> implements MutableHash<K, V> {
 
     @Override
     public MutableHash<K, V> replace(K k, V v) {
-        Map<K, V> newHash = new HashMap<>(hash);
-        newHash.replace(k, v);
-        return new HashImpl<>(newHash);
+        return newInstance(hash).replaceInPlace(k, v);
     }
 
     @Override
     public MutableHash<K, V> replace(K k, V oldValue, V newValue) {
-        Map<K, V> newHash = new HashMap<>(hash);
-        newHash.replace(k, oldValue, newValue);
-        return new HashImpl<>(newHash);
+        return newInstance(hash).replaceInPlace(k, oldValue, newValue);
     }
 
     @Override
     public MutableHash<K, V> replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
         Objects.requireNonNull(function);
-        Map<K, V> newHash = new HashMap<>(hash);
-        newHash.replaceAll(function);
-        return new HashImpl<>(newHash);
+        return newInstance(hash).replaceAllInPlace(function);
     }
 
     @Override
@@ -312,6 +393,24 @@ class HashImpl<K, V> implements MutableHash<K, V> {
 
     @Override
     public HashMap<K,V> toHashMap(){
-        return this.hash;
+        return new HashMap<>(hash);
+    }
+
+    @Override
+    public Hash<K, V> freeze() {
+        frozen = true;
+        return this;
+    }
+
+    @Override
+    public Hash<K, V> snapshot() {
+        if (frozen) {
+            return this;
+        }
+        HashImpl<K, V> snapshot = newInstance(Collections.emptyMap());
+        snapshot.hash = hash;
+        snapshot.frozen = true;
+        shared = true;
+        return snapshot;
     }
 }
@@ -16,12 +16,19 @@
 
 package com.worksap.icefig.lang;
 
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collector;
 
 /**
  * Factory class for construct Hash and MutableHash
  */
 public class Hashes {
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
     private Hashes() {
 
     }
@@ -31,7 +38,7 @@ public class Hashes {
     }
 
     public static <K, V> Hash<K, V> newHash(Map<K, V> map) {
-        return new HashImpl<>(map);
+        return new HashImpl<>(HashImpl.newMap(map));
     }
 
     public static <K, V> MutableHash<K, V> newMutableHash() {
@@ -39,6 +46,246 @@ public class Hashes {
     }
 
     public static <K, V> MutableHash<K, V> newMutableHash(Map<K, V> map) {
-        return new HashImpl<>(map);
+        return new HashImpl<>(HashImpl.newMap(map));
+    }
+
+    /**
+     * Create a builder to construct a Hash with in-place puts.
+     */
+    public static <K, V> HashBuilder<K, V> newHashBuilder() {
+        return new HashBuilder<>();
+    }
+
+    /**
+     * Create a builder to construct a Hash with in-place puts, presized for the expected number of mappings.
+     *
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public static <K, V> HashBuilder<K, V> newHashBuilder(int expectedSize) {
+        return new HashBuilder<>(expectedSize);
+    }
+
+    /**
+     * Create an empty MutableHash which keeps an index from each value to its keys.
+     * <p>
+     * The index is updated incrementally by every change, so that {@link Hash#keysOf}, {@link Hash#containsValue}
+     * and {@link Hash#count} take time proportional to the result rather than to the size of the hash,
+     * and {@link Hash#invert()} returns a read-only view instead of a copy.
+     * </p>
+     */
+    public static <K, V> MutableHash<K, V> newBiHash() {
+        return new BiHashImpl<>();
+    }
+
+    /**
+     * Create a MutableHash with the mappings of the map, which keeps an index from each value to its keys.
+     *
+     * @see #newBiHash()
+     */
+    public static <K, V> MutableHash<K, V> newBiHash(Map<K, V> map) {
+        return new BiHashImpl<>(map);
+    }
+
+    /**
+     * Create an empty thread-safe MutableHash.
+     * <p>
+     * In-place methods can be called from multiple threads without external locking, and
+     * {@link MutableHash#computeInPlace}, {@link MutableHash#mergeInPlace(Object, Object, java.util.function.BiFunction)}
+     * and {@link MutableHash#incrementInPlace} are atomic. {@link Hash#keys()}, {@link Hash#values()} and
+     * {@link Hash#entrySeq()} are weakly consistent snapshots: they never throw
+     * {@link java.util.ConcurrentModificationException}, and may or may not reflect concurrent updates.
+     * Neither keys nor values can be null.
+     * </p>
+     */
+    public static <K, V> MutableHash<K, V> newConcurrentHash() {
+        return new ConcurrentHashImpl<>();
+    }
+
+    /**
+     * Create a thread-safe MutableHash with the mappings of the map.
+     *
+     * @see #newConcurrentHash()
+     */
+    public static <K, V> MutableHash<K, V> newConcurrentHash(Map<K, V> map) {
+        return new ConcurrentHashImpl<>(map);
+    }
+
+    /**
+     * Create an empty SortedHash whose keys are in their natural ordering.
+     */
+    public static <K extends Comparable<? super K>, V> SortedHash<K, V> newSortedHash() {
+        return new SortedHashImpl<>(null);
+    }
+
+    /**
+     * Create an empty SortedHash whose keys are ordered by the comparator.
+     *
+     * @throws NullPointerException if comparator is null
+     */
+    public static <K, V> SortedHash<K, V> newSortedHash(Comparator<? super K> comparator) {
+        Objects.requireNonNull(comparator);
+        return new SortedHashImpl<>(comparator);
+    }
+
+    /**
+     * Create a SortedHash with the mappings of the map, whose keys are in their natural ordering.
+     */
+    public static <K extends Comparable<? super K>, V> SortedHash<K, V> newSortedHash(Map<K, V> map) {
+        return new SortedHashImpl<>(null, map);
+    }
+
+    /**
+     * Create an empty MutableSortedHash whose keys are in their natural ordering.
+     */
+    public static <K extends Comparable<? super K>, V> MutableSortedHash<K, V> newMutableSortedHash() {
+        return new SortedHashImpl<>(null);
+    }
+
+    /**
+     * Create an empty MutableSortedHash whose keys are ordered by the comparator.
+     *
+     * @throws NullPointerException if comparator is null
+     */
+    public static <K, V> MutableSortedHash<K, V> newMutableSortedHash(Comparator<? super K> comparator) {
+        Objects.requireNonNull(comparator);
+        return new SortedHashImpl<>(comparator);
+    }
+
+    /**
+     * Create a MutableSortedHash with the mappings of the map, whose keys are in their natural ordering.
+     */
+    public static <K extends Comparable<? super K>, V> MutableSortedHash<K, V> newMutableSortedHash(Map<K, V> map) {
+        return new SortedHashImpl<>(null, map);
+    }
+
+    /**
+     * Create an empty hash with primitive int keys, with the default load factor 0.75.
+     */
+    public static <V> IntHash<V> newIntHash() {
+        return new IntHash<>(0, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Create an empty hash with primitive int keys, presized for the expected number of mappings.
+     *
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public static <V> IntHash<V> newIntHash(int expectedSize) {
+        return new IntHash<>(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Create an empty hash with primitive int keys, presized for the expected number of mappings.
+     * The table grows when the ratio of the mappings to its slots exceeds loadFactor.
+     *
+     * @throws IllegalArgumentException if expectedSize is negative, or loadFactor is not within (0, 1)
+     */
+    public static <V> IntHash<V> newIntHash(int expectedSize, float loadFactor) {
+        return new IntHash<>(expectedSize, loadFactor);
+    }
+
+    /**
+     * Create an empty hash with primitive long keys, with the default load factor 0.75.
+     */
+    public static <V> LongHash<V> newLongHash() {
+        return new LongHash<>(0, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Create an empty hash with primitive long keys, presized for the expected number of mappings.
+     *
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public static <V> LongHash<V> newLongHash(int expectedSize) {
+        return new LongHash<>(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Create an empty hash with primitive long keys, presized for the expected number of mappings.
+     * The table grows when the ratio of the mappings to its slots exceeds loadFactor.
+     *
+     * @throws IllegalArgumentException if expectedSize is negative, or loadFactor is not within (0, 1)
+     */
+    public static <V> LongHash<V> newLongHash(int expectedSize, float loadFactor) {
+        return new LongHash<>(expectedSize, loadFactor);
+    }
+
+    /**
+     * Create an empty hash with primitive long keys and values, with the default load factor 0.75.
+     */
+    public static LongLongHash newLongLongHash() {
+        return new LongLongHash(0, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Create an empty hash with primitive long keys and values, presized for the expected number of mappings.
+     *
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public static LongLongHash newLongLongHash(int expectedSize) {
+        return new LongLongHash(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Create an empty hash with primitive long keys and values, presized for the expected number of mappings.
+     * The table grows when the ratio of the mappings to its slots exceeds loadFactor.
+     *
+     * @throws IllegalArgumentException if expectedSize is negative, or loadFactor is not within (0, 1)
+     */
+    public static LongLongHash newLongLongHash(int expectedSize, float loadFactor) {
+        return new LongLongHash(expectedSize, loadFactor);
+    }
+
+    /**
+     * Returns a {@link Collector} that accumulates the input elements into a new Hash,
+     * whose keys and values are the results of applying the mapping functions to the elements.
+     * If the mapped keys contain duplicates, the value of the last element is kept, as {@link Hash#merge} does.
+     * <p>
+     * Partial results of a parallel stream are combined by putting the smaller one into the larger one.
+     * </p>
+     *
+     * @throws NullPointerException if keyMapper or valueMapper is null
+     */
+    public static <T, K, V> Collector<T, ?, Hash<K, V>> toHash(Function<? super T, ? extends K> keyMapper,
+                                                             Function<? super T, ? extends V> valueMapper) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        return Collector.of(HashImpl<K, V>::new,
+                (hash, e) -> hash.putInPlace(keyMapper.apply(e), valueMapper.apply(e)),
+                (left, right) -> {
+                    if (left.size() >= right.size()) {
+                        left.mergeInPlace(right);
+                        return left;
+                    }
+                    left.entrySeq().forEach(entry -> {
+                        if (!right.containsKey(entry.getKey())) {
+                            right.putInPlace(entry.getKey(), entry.getValue());
+                        }
+                    });
+                    return right;
+                },
+                hash -> hash);
+    }
+
+    /**
+     * Returns a {@link Collector} that accumulates the input elements into a new Hash,
+     * whose keys and values are the results of applying the mapping functions to the elements.
+     * If the mapped keys contain duplicates, their values are merged with mergeFunction, in encounter order.
+     *
+     * @throws NullPointerException if keyMapper, valueMapper or mergeFunction is null
+     */
+    public static <T, K, V> Collector<T, ?, Hash<K, V>> toHash(Function<? super T, ? extends K> keyMapper,
+                                                             Function<? super T, ? extends V> valueMapper,
+                                                             BinaryOperator<V> mergeFunction) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        Objects.requireNonNull(mergeFunction);
+        return Collector.of(HashImpl<K, V>::new,
+                (hash, e) -> hash.mergeInPlace(keyMapper.apply(e), valueMapper.apply(e), mergeFunction),
+                (left, right) -> {
+                    right.entrySeq().forEach(entry -> left.mergeInPlace(entry.getKey(), entry.getValue(), mergeFunction));
+                    return left;
+                },
+                hash -> hash);
     }
 }
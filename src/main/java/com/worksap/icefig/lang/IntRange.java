@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An arithmetic {@link Range} of int values, with a fixed step.
+ * <p>
+ * Elements are computed from their index rather than generated one by one, so that size, contains and get
+ * take O(1) time, and iteration needs neither boxing nor comparison. The range is immutable: the setters
+ * inherited from {@link Range} throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @see Range#ofInt(int, int, int)
+ */
+public final class IntRange extends Range<Integer> {
+    private final int first;
+    private final int step;
+    private final long size;
+
+    IntRange(int from, int to, int step) {
+        super(from, to, true, i -> i + step);
+        if (step == 0) {
+            throw new IllegalArgumentException("step should not be zero.");
+        }
+        this.first = from;
+        this.step = step;
+        long distance = (long) to - from;
+        this.size = distance == 0 || (distance > 0) == (step > 0) ? distance / step + 1 : 0;
+    }
+
+    /**
+     * @return the difference between two adjacent elements
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return the number of elements in this range
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Same as {@link #size()}, in O(1) time.
+     */
+    @Override
+    public long count() {
+        return size;
+    }
+
+    /**
+     * @return whether the value is one of the elements of this range
+     */
+    public boolean contains(int value) {
+        long offset = (long) value - first;
+        return offset % step == 0 && offset / step >= 0 && offset / step < size;
+    }
+
+    /**
+     * @return the element at the index
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    public int get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elementAt(index);
+    }
+
+    /**
+     * Iterate each element of the range, without boxing.
+     *
+     * @throws NullPointerException if action is null
+     */
+    public void forEachInt(IntConsumer action) {
+        Objects.requireNonNull(action);
+        int value = first;
+        for (long i = 0; i < size; i++) {
+            action.accept(value);
+            value += step;
+        }
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            long remaining = size;
+            int value = first;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                int current = value;
+                value += step;
+                remaining--;
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link Spliterator.OfInt} over the elements of the range, which is SIZED and SUBSIZED,
+     * and splits the range evenly by index.
+     */
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return new Splitr(0, size);
+    }
+
+    /**
+     * @return a sequential {@link IntStream} over the elements of the range
+     */
+    public IntStream intStream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * @return a possibly parallel {@link IntStream} over the elements of the range
+     */
+    public IntStream parallelIntStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    /**
+     * @return an {@link IntSeq} of all the elements of this range
+     * @throws IllegalStateException if this range has more than {@link Integer#MAX_VALUE} elements
+     */
+    public IntSeq toIntSeq() {
+        int[] values = new int[checkedSize()];
+        int value = first;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value;
+            value += step;
+        }
+        return new IntSeq(values);
+    }
+
+    @Override
+    public Seq<Integer> toSeq() {
+        return toMutableSeq();
+    }
+
+    @Override
+    public MutableSeq<Integer> toMutableSeq() {
+        MutableSeq<Integer> seq = new SeqImpl<>(checkedSize());
+        forEachInt(seq::appendInPlace);
+        return seq;
+    }
+
+    @Override
+    public Range<Integer> from(Integer from) {
+        throw new UnsupportedOperationException("IntRange is immutable.");
+    }
+
+    @Override
+    public Range<Integer> to(Integer to) {
+        throw new UnsupportedOperationException("IntRange is immutable.");
+    }
+
+    @Override
+    public Range<Integer> until(Integer to) {
+        throw new UnsupportedOperationException("IntRange is immutable.");
+    }
+
+    @Override
+    public Range<Integer> next(Function<Integer, Integer> next) {
+        throw new UnsupportedOperationException("IntRange is immutable.");
+    }
+
+    @Override
+    public Range<Integer> next(BiFunction<Integer, Integer, Integer> next) {
+        throw new UnsupportedOperationException("IntRange is immutable.");
+    }
+
+    @Override
+    public Range<Integer> nextIndexed(ObjLongFunction<Integer, Integer> next) {
+        throw new UnsupportedOperationException("IntRange is immutable.");
+    }
+
+    private int elementAt(long index) {
+        return (int) (first + index * step);
+    }
+
+    private int checkedSize() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The range has too many elements: " + size);
+        }
+        return (int) size;
+    }
+
+    private final class Splitr implements Spliterator.OfInt {
+        private long index;
+        private final long fence;
+
+        Splitr(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            long mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Splitr prefix = new Splitr(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(elementAt(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            for (long i = index; i < fence; i++) {
+                action.accept(elementAt(i));
+            }
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE | DISTINCT;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Hash joins between seqs, used by the join methods of {@link Seq}.
+ * <p>
+ * The hash table is always built on the smaller seq and probed with the larger one,
+ * while the results keep the order of the left seq.
+ * </p>
+ */
+final class Joins {
+    /**
+     * The largest initial capacity of a grouping HashMap, since a few keys may hold many elements.
+     */
+    static final int MAX_GROUP_CAPACITY = 1 << 16;
+
+    private Joins() {
+
+    }
+
+    /**
+     * Calls the action on each element of left in order, with the elements of right in order whose key equals to it.
+     * Elements without a match are passed with an empty list.
+     */
+    @SuppressWarnings("unchecked")
+    static <T, U, K> void forEachMatch(Seq<T> left, Seq<U> right,
+                                       Function<? super T, ? extends K> leftKey,
+                                       Function<? super U, ? extends K> rightKey,
+                                       BiConsumer<T, List<U>> action) {
+        if (right.size() <= left.size()) {
+            Map<K, List<U>> table = new HashMap<>(capacityFor(right.size()));
+            right.forEach(u -> table.computeIfAbsent(rightKey.apply(u), k -> new ArrayList<>(1)).add(u));
+            left.forEach(t -> action.accept(t, table.getOrDefault(leftKey.apply(t), Collections.emptyList())));
+            return;
+        }
+
+        Map<K, List<Integer>> table = new HashMap<>(capacityFor(left.size()));
+        left.forEach((t, i) -> table.computeIfAbsent(leftKey.apply(t), k -> new ArrayList<>(1)).add(i));
+        List<List<U>> matches = new ArrayList<>(Collections.nCopies(left.size(), null));
+        right.forEach(u -> {
+            List<Integer> indices = table.get(rightKey.apply(u));
+            if (indices != null) {
+                for (int i : indices) {
+                    if (matches.get(i) == null) {
+                        matches.set(i, new ArrayList<>(1));
+                    }
+                    matches.get(i).add(u);
+                }
+            }
+        });
+        left.forEach((t, i) -> action.accept(t, matches.get(i) == null ? Collections.emptyList() : matches.get(i)));
+    }
+
+    /**
+     * @return whether each element of left has any element in right with the same key
+     */
+    static <T, U, K> boolean[] hasMatch(Seq<T> left, Seq<U> right,
+                                        Function<? super T, ? extends K> leftKey,
+                                        Function<? super U, ? extends K> rightKey) {
+        boolean[] result = new boolean[left.size()];
+        if (right.size() <= left.size()) {
+            Set<K> rightKeys = new HashSet<>(capacityFor(right.size()));
+            right.forEach(u -> rightKeys.add(rightKey.apply(u)));
+            left.forEach((t, i) -> result[i] = rightKeys.contains(leftKey.apply(t)));
+            return result;
+        }
+
+        List<K> leftKeys = new ArrayList<>(left.size());
+        left.forEach(t -> leftKeys.add(leftKey.apply(t)));
+        Set<K> wanted = new HashSet<>(leftKeys);
+        Set<K> found = new HashSet<>(capacityFor(wanted.size()));
+        right.forEach(u -> {
+            K key = rightKey.apply(u);
+            if (wanted.contains(key)) {
+                found.add(key);
+            }
+        });
+        for (int i = 0; i < result.length; i++) {
+            result[i] = found.contains(leftKeys.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return the initial capacity of a HashMap to hold n entries without rehashing
+     */
+    static int capacityFor(int n) {
+        return (int) (n / 0.75f) + 1;
+    }
+
+    /**
+     * @return the initial capacity of a HashMap grouping n elements by their keys. As the number of keys is unknown,
+     * it is bounded by {@link #MAX_GROUP_CAPACITY}, beyond which the map grows as needed
+     */
+    static int groupCapacityFor(int n) {
+        return Math.min(capacityFor(n), MAX_GROUP_CAPACITY);
+    }
+}
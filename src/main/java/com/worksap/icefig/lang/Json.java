@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Streaming JSON encoding of Seq, Hash and CharSeq trees, and decoding into them.
+ * <p>
+ * {@link #write(Object, Appendable)} writes a tree directly to a Writer or a buffer, without building intermediate
+ * Strings. {@link #parse(Reader)} builds Seqs and Hashes from a {@link JsonReader}; use a JsonReader directly to pull
+ * the tokens of large documents one at a time.
+ * </p>
+ */
+public final class Json {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Json() {
+
+    }
+
+    /**
+     * Writes the value as JSON to the appendable.
+     * <p>
+     * Seqs, IntSeqs, LongSeqs and other Iterables are written as arrays, and Hashes and Maps as objects,
+     * whose keys are written by {@link String#valueOf(Object)}. CharSeqs, CharSequences and Characters are
+     * written as strings, Numbers and Booleans as themselves, and null as null.
+     * </p>
+     *
+     * @throws NullPointerException     if out is null
+     * @throws IllegalArgumentException if the tree contains a value of another type, or a non-finite number
+     * @throws IOException              if the appendable throws it
+     */
+    public static void write(Object value, Appendable out) throws IOException {
+        Objects.requireNonNull(out);
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof CharSeq) {
+            writeString(((CharSeq) value).chars(), out);
+        } else if (value instanceof CharSequence) {
+            writeString((CharSequence) value, out);
+        } else if (value instanceof Character) {
+            writeString(String.valueOf(value), out);
+        } else if (value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof Number) {
+            writeNumber((Number) value, out);
+        } else if (value instanceof Seq) {
+            Seq<?> seq = (Seq<?>) value;
+            out.append('[');
+            for (int i = 0; i < seq.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                write(seq.get(i), out);
+            }
+            out.append(']');
+        } else if (value instanceof Hash) {
+            Hash<?, ?> hash = (Hash<?, ?>) value;
+            writeObject(hash instanceof HashImpl ? ((HashImpl<?, ?>) hash).map().entrySet() : hash.entrySeq().toArrayList(), out);
+        } else if (value instanceof Map) {
+            writeObject(((Map<?, ?>) value).entrySet(), out);
+        } else if (value instanceof IntSeq) {
+            ((IntSeq) value).joinTo(out, ",", "[", "]");
+        } else if (value instanceof LongSeq) {
+            ((LongSeq) value).joinTo(out, ",", "[", "]");
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            boolean first = true;
+            for (Object element : (Iterable<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(element, out);
+            }
+            out.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value.getClass().getName() + " as JSON.");
+        }
+    }
+
+    /**
+     * @return the value as a JSON string
+     * @throws IllegalArgumentException if the tree contains a value which cannot be written as JSON
+     * @see #write(Object, Appendable)
+     */
+    public static String toJson(Object value) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            write(value, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reads a JSON document, building arrays as {@code Seq<Object>} and objects as {@code Hash<String, Object>},
+     * in the order of the document. Strings are read as String, true and false as Boolean, and numbers as Long
+     * if they are integers within its range, as BigInteger if they are larger integers, and as Double otherwise.
+     *
+     * @throws NullPointerException     if reader is null
+     * @throws IllegalArgumentException if the document is malformed
+     * @throws IOException              if the reader throws it
+     */
+    public static Object parse(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        Object value = readValue(json);
+        json.endDocument();
+        return value;
+    }
+
+    /**
+     * Reads a JSON document from the characters.
+     *
+     * @throws NullPointerException     if json is null
+     * @throws IllegalArgumentException if the document is malformed
+     * @see #parse(Reader)
+     */
+    public static Object parse(CharSequence json) {
+        try {
+            return parse(new StringReader(json.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object readValue(JsonReader json) throws IOException {
+        switch (json.peek()) {
+            case BEGIN_ARRAY:
+                SeqBuilder<Object> seq = new SeqBuilder<>();
+                json.beginArray();
+                while (json.hasNext()) {
+                    seq.append(readValue(json));
+                }
+                json.endArray();
+                return seq.build();
+            case BEGIN_OBJECT:
+                HashBuilder<String, Object> hash = new HashBuilder<>();
+                json.beginObject();
+                while (json.hasNext()) {
+                    String name = json.nextName();
+                    hash.put(name, readValue(json));
+                }
+                json.endObject();
+                return hash.build();
+            case STRING:
+                return json.nextString();
+            case NUMBER:
+                return json.nextNumber();
+            case BOOLEAN:
+                return json.nextBoolean();
+            case NULL:
+                json.nextNull();
+                return null;
+            default:
+                throw new IllegalArgumentException("Unexpected " + json.peek() + " at position " + json.position() + ".");
+        }
+    }
+
+    private static void writeObject(Iterable<? extends Map.Entry<?, ?>> entries, Appendable out) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : entries) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            Object key = entry.getKey();
+            writeString(key instanceof CharSequence ? (CharSequence) key : String.valueOf(key), out);
+            out.append(':');
+            write(entry.getValue(), out);
+        }
+        out.append('}');
+    }
+
+    private static void writeNumber(Number number, Appendable out) throws IOException {
+        if ((number instanceof Double || number instanceof Float) && !Double.isFinite(number.doubleValue())) {
+            throw new IllegalArgumentException("JSON cannot represent " + number + ".");
+        }
+        out.append(number.toString());
+    }
+
+    /**
+     * Writes the string quoted, appending the runs of characters which need no escape at once.
+     * U+2028 and U+2029 are escaped too, as they end lines in JavaScript.
+     */
+    private static void writeString(CharSequence s, Appendable out) throws IOException {
+        out.append('"');
+        int run = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            out.append(s, run, i);
+            run = i + 1;
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                default:
+                    out.append("\\u").append(HEX[c >> 12 & 0xF]).append(HEX[c >> 8 & 0xF]).append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+            }
+        }
+        out.append(s, run, s.length());
+        out.append('"');
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A pull parser of JSON, reading one token at a time from a Reader, so that large documents are never held in memory.
+ * <p>
+ * {@link #peek()} tells the type of the next token, and the next* and begin/end methods consume it.
+ * Calling a method which does not match the next token throws {@link IllegalStateException},
+ * and malformed input throws {@link IllegalArgumentException} with its position.
+ * </p>
+ * <p>
+ * Arrays and objects may be nested at most {@link #MAX_DEPTH} levels deep, so that untrusted input can not
+ * exhaust the stack of a recursive consumer such as {@link Json#parse(Reader)}.
+ * </p>
+ *
+ * @see Json#parse(Reader)
+ */
+public final class JsonReader implements Closeable {
+    /**
+     * The types of the tokens.
+     */
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    /**
+     * The maximum nesting depth of arrays and objects.
+     */
+    public static final int MAX_DEPTH = 512;
+
+    /*
+     * The scopes on the stack, telling what may come next.
+     */
+    private static final int EMPTY_ARRAY = 0;
+    private static final int NONEMPTY_ARRAY = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_DOCUMENT = 5;
+    private static final int NONEMPTY_DOCUMENT = 6;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private int[] stack = new int[32];
+    private int depth;
+    /*
+     * The characters of the number being read, reused for every number.
+     */
+    private final StringBuilder number = new StringBuilder();
+    /*
+     * The next token, or null if it is not peeked yet. The opening character of an array, an object, a name or
+     * a string has been consumed, while a literal or a number is read from its first character.
+     */
+    private Token peeked;
+
+    /**
+     * @throws NullPointerException if reader is null
+     */
+    public JsonReader(Reader reader) {
+        this.reader = Objects.requireNonNull(reader);
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @return the type of the next token, without consuming it
+     * @throws IllegalArgumentException if the input is malformed
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != -1) {
+                    pos--;
+                }
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[depth - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Expected the end of the document");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return peeked = Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError(c == -1 ? "Unexpected end of the document" : "Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * @return whether the current array or object has more elements
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+
+    public void beginArray() throws IOException {
+        consume(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        consume(Token.END_ARRAY);
+        depth--;
+    }
+
+    public void beginObject() throws IOException {
+        consume(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        consume(Token.END_OBJECT);
+        depth--;
+    }
+
+    public String nextName() throws IOException {
+        consume(Token.NAME);
+        return readString();
+    }
+
+    public String nextString() throws IOException {
+        consume(Token.STRING);
+        return readString();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        consume(Token.BOOLEAN);
+        if (peekChar() == 't') {
+            readLiteral("true");
+            return true;
+        }
+        readLiteral("false");
+        return false;
+    }
+
+    public void nextNull() throws IOException {
+        consume(Token.NULL);
+        readLiteral("null");
+    }
+
+    /**
+     * @return the number as a Long if it is an integer within its range, as a BigInteger if it is a larger integer,
+     * and as a Double otherwise
+     */
+    public Number nextNumber() throws IOException {
+        consume(Token.NUMBER);
+        number.setLength(0);
+        // validates -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)? by the states:
+        // 0 start, 1 after '-', 2 integer digits, 3 after a leading '0', 4 after '.', 5 fraction digits,
+        // 6 after 'e', 7 after the sign of the exponent, 8 exponent digits
+        int state = 0;
+        boolean negative = false;
+        int digits = 0;
+        long value = 0;
+        for (int c = peekChar(); c != -1 && isNumberChar(c); c = peekChar()) {
+            number.append((char) c);
+            pos++;
+            boolean digit = c >= '0' && c <= '9';
+            switch (state) {
+                case 0:
+                case 1:
+                    if (c == '-' && state == 0) {
+                        negative = true;
+                        state = 1;
+                    } else if (digit) {
+                        value = c - '0';
+                        digits = 1;
+                        state = c == '0' ? 3 : 2;
+                    } else {
+                        state = -1;
+                    }
+                    break;
+                case 2:
+                case 3:
+                    if (digit && state == 2) {
+                        value = value * 10 + (c - '0');
+                        digits++;
+                    } else {
+                        state = c == '.' ? 4 : c == 'e' || c == 'E' ? 6 : -1;
+                    }
+                    break;
+                case 4:
+                    state = digit ? 5 : -1;
+                    break;
+                case 5:
+                    state = digit ? 5 : c == 'e' || c == 'E' ? 6 : -1;
+                    break;
+                case 6:
+                    state = digit ? 8 : c == '+' || c == '-' ? 7 : -1;
+                    break;
+                default:
+                    state = digit ? 8 : -1;
+                    break;
+            }
+            if (state < 0) {
+                throw syntaxError("Malformed number " + number);
+            }
+        }
+        if (state != 2 && state != 3 && state != 5 && state != 8) {
+            throw syntaxError("Malformed number " + number);
+        }
+        if (state == 2 || state == 3) {
+            if (digits < 19) {
+                return negative ? -value : value;
+            }
+            return narrow(new BigInteger(number.toString()));
+        }
+        return Double.parseDouble(number.toString());
+    }
+
+    /**
+     * Skips the next value, with all of its elements if it is an array or an object.
+     */
+    public void skipValue() throws IOException {
+        int skipDepth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    skipDepth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    skipDepth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    skipDepth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    skipDepth--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    nextString();
+                    break;
+                case NUMBER:
+                    nextNumber();
+                    break;
+                case BOOLEAN:
+                    nextBoolean();
+                    break;
+                case NULL:
+                    nextNull();
+                    break;
+                default:
+                    throw new IllegalStateException("No value to skip at position " + position() + ".");
+            }
+        } while (skipDepth > 0);
+    }
+
+    /**
+     * Checks that the whole document has been read.
+     *
+     * @throws IllegalArgumentException if the document continues
+     */
+    public void endDocument() throws IOException {
+        consume(Token.END_DOCUMENT);
+    }
+
+    /**
+     * @return the number of characters consumed so far
+     */
+    public long position() {
+        return consumed + pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void consume(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token + " at position " + position() + ".");
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        // the bottom of the stack is the scope of the document
+        if (depth > MAX_DEPTH) {
+            throw syntaxError("Nesting deeper than " + MAX_DEPTH + " levels");
+        }
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been consumed, appending the runs without escapes at once.
+     */
+    private String readString() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        while (true) {
+            int run = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"' || c == '\\' || c < 0x20) {
+                    break;
+                }
+                pos++;
+            }
+            builder.append(buffer, run, pos - run);
+            if (pos == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c < 0x20) {
+                throw syntaxError("Unescaped control character in a string");
+            }
+            builder.append(readEscape());
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = nextChar();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = value << 4 | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Malformed escape");
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextChar() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+        int c = peekChar();
+        if (c != -1 && (Character.isLetterOrDigit(c) || c == '_')) {
+            throw syntaxError("Expected " + literal);
+        }
+    }
+
+    private static boolean isNumberChar(int c) {
+        return c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private static Number narrow(BigInteger value) {
+        return value.bitLength() < Long.SIZE ? (Number) value.longValue() : value;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = nextChar();
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+        }
+    }
+
+    private int nextChar() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private int peekChar() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += pos;
+        pos = 0;
+        limit = 0;
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private IllegalArgumentException syntaxError(String message) {
+        return new IllegalArgumentException(message + " at position " + position() + ".");
+    }
+}
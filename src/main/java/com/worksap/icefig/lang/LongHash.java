@@ -0,0 +1,502 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Hash with primitive long keys, stored with open addressing in primitive arrays.
+ * <p>
+ * Keys are neither boxed nor wrapped in entry nodes: the keys and values are held in two parallel arrays,
+ * probed linearly. Removal shifts the following entries back, so that no tombstone is left behind.
+ * </p>
+ * <p>
+ * Similar to {@link MutableHash}, methods named xxxInPlace change the hash itself, while the others return a new hash.
+ * </p>
+ *
+ * @see Hashes#newLongHash()
+ */
+public final class LongHash<V> {
+    private final float loadFactor;
+
+    /*
+     * Key 0 marks an empty slot, so the mapping of key 0 is held aside.
+     */
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    LongHash(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize should not be negative.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("loadFactor should be within (0, 1).");
+        }
+        this.loadFactor = loadFactor;
+        allocate(IntHash.capacityFor(expectedSize, loadFactor));
+    }
+
+    private LongHash(LongHash<V> another) {
+        this.loadFactor = another.loadFactor;
+        this.keys = another.keys.clone();
+        this.values = another.values.clone();
+        this.mask = another.mask;
+        this.threshold = another.threshold;
+        this.size = another.size;
+        this.hasZeroKey = another.hasZeroKey;
+        this.zeroValue = another.zeroValue;
+    }
+
+    /**
+     * Represents a predicate of a long key and a value.
+     */
+    @FunctionalInterface
+    public interface LongObjPredicate<V> {
+        boolean test(long key, V value);
+    }
+
+    /**
+     * Represents an operation on a long key and a value.
+     */
+    @FunctionalInterface
+    public interface LongObjConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+    }
+
+    public boolean containsValue(V value) {
+        return containsAny((k, v) -> Objects.equals(v, value));
+    }
+
+    /**
+     * Check whether this hash contains any key-value pair that satisfies the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public boolean containsAny(LongObjPredicate<V> condition) {
+        Objects.requireNonNull(condition);
+        if (hasZeroKey && condition.test(0, zeroValue)) {
+            return true;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && condition.test(keys[i], valueAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the value of the key, or null if the key is absent
+     */
+    public V get(long key) {
+        return get(key, null);
+    }
+
+    /**
+     * @return the value of the key, or defaultValue if the key is absent
+     */
+    public V get(long key, V defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = slotOf(key);
+        return slot < 0 ? defaultValue : valueAt(slot);
+    }
+
+    /**
+     * @return all the keys of this hash, in no particular order
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return all the values of this hash, in the same order as {@link #keys()}
+     */
+    public Seq<V> values() {
+        MutableSeq<V> result = new SeqImpl<>(size);
+        if (hasZeroKey) {
+            result.appendInPlace(zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                result.appendInPlace(valueAt(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the keys whose value is the given value
+     */
+    public long[] keysOf(V value) {
+        long[] result = new long[count(value)];
+        int[] n = {0};
+        forEach((k, v) -> {
+            if (Objects.equals(v, value)) {
+                result[n[0]++] = k;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Iterate each key-value pair of the hash.
+     *
+     * @throws NullPointerException if action is null
+     */
+    public void forEach(LongObjConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], valueAt(i));
+            }
+        }
+    }
+
+    /**
+     * @return the number of the specified value in this hash
+     */
+    public int count(V value) {
+        return countIf((k, v) -> Objects.equals(v, value));
+    }
+
+    /**
+     * Returns the number of entries which satisfy the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public int countIf(LongObjPredicate<V> condition) {
+        Objects.requireNonNull(condition);
+        int count = 0;
+        if (hasZeroKey && condition.test(0, zeroValue)) {
+            count++;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && condition.test(keys[i], valueAt(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public LongHash<V> put(long key, V value) {
+        return new LongHash<>(this).putInPlace(key, value);
+    }
+
+    public LongHash<V> putIfAbsent(long key, V value) {
+        return new LongHash<>(this).putIfAbsentInPlace(key, value);
+    }
+
+    public LongHash<V> remove(long key) {
+        return new LongHash<>(this).removeInPlace(key);
+    }
+
+    /**
+     * Return a new hash with the key-value pairs of this hash which satisfy the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public LongHash<V> filter(LongObjPredicate<V> condition) {
+        Objects.requireNonNull(condition);
+        LongHash<V> result = new LongHash<>(0, loadFactor);
+        forEach((k, v) -> {
+            if (condition.test(k, v)) {
+                result.putInPlace(k, v);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Return a new hash with the key-value pairs of this hash which don't satisfy the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public LongHash<V> reject(LongObjPredicate<V> condition) {
+        Objects.requireNonNull(condition);
+        return filter((k, v) -> !condition.test(k, v));
+    }
+
+    /**
+     * Returns a new hash containing the mappings of the specified hash and this hash itself.
+     * The value for entries with duplicate keys will be that of the specified hash.
+     */
+    public LongHash<V> merge(LongHash<? extends V> another) {
+        return new LongHash<>(this).mergeInPlace(another);
+    }
+
+    /**
+     * In-place method of {@link #put(long, Object)}
+     */
+    public LongHash<V> putInPlace(long key, V value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return this;
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return this;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #putIfAbsent(long, Object)}
+     */
+    public LongHash<V> putIfAbsentInPlace(long key, V value) {
+        if (!containsKey(key)) {
+            putInPlace(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #remove(long)}
+     */
+    public LongHash<V> removeInPlace(long key) {
+        if (key == 0) {
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return this;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            removeAt(slot);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #filter(LongObjPredicate)}
+     */
+    public LongHash<V> filterInPlace(LongObjPredicate<V> condition) {
+        Objects.requireNonNull(condition);
+        if (hasZeroKey && !condition.test(0, zeroValue)) {
+            removeInPlace(0);
+        }
+        long[] rejected = new long[8];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && !condition.test(keys[i], valueAt(i))) {
+                if (n == rejected.length) {
+                    rejected = Arrays.copyOf(rejected, n * 2);
+                }
+                rejected[n++] = keys[i];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            removeInPlace(rejected[i]);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #reject(LongObjPredicate)}
+     */
+    public LongHash<V> rejectInPlace(LongObjPredicate<V> condition) {
+        Objects.requireNonNull(condition);
+        return filterInPlace((k, v) -> !condition.test(k, v));
+    }
+
+    /**
+     * In-place method of {@link #merge(LongHash)}
+     */
+    public LongHash<V> mergeInPlace(LongHash<? extends V> another) {
+        if (another != null) {
+            another.forEach(this::putInPlace);
+        }
+        return this;
+    }
+
+    /**
+     * Remove all the key-value pairs of this hash, keeping its capacity.
+     *
+     * @return the hash itself after clear
+     */
+    public LongHash<V> clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+        return this;
+    }
+
+    /**
+     * @return a boxed copy of this hash
+     */
+    public MutableHash<Long, V> toHash() {
+        MutableHash<Long, V> result = Hashes.newMutableHash();
+        forEach(result::putInPlace);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof LongHash)) {
+            return false;
+        }
+        LongHash<?> another = (LongHash<?>) o;
+        if (another.size != size) {
+            return false;
+        }
+        return !containsAny((k, v) -> !another.containsKey(k) || !Objects.equals(v, another.get(k)));
+    }
+
+    @Override
+    public int hashCode() {
+        int[] h = {0};
+        forEach((k, v) -> h[0] += Long.hashCode(k) ^ Objects.hashCode(v));
+        return h[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(k).append('=').append(v);
+        });
+        return builder.append('}').toString();
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private void rehash(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalStateException("LongHash can not grow beyond " + (1 << 30) + " slots.");
+        }
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at the slot, shifting back the following entries of the same probe sequence.
+     */
+    private void removeAt(int slot) {
+        size--;
+        int free = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = keys[i];
+            if (key == 0) {
+                break;
+            }
+            int home = hash(key) & mask;
+            // the entry can move to the free slot only if its home is not within (free, i]
+            if (free <= i ? (home <= free || home > i) : (home <= free && home > i)) {
+                keys[free] = key;
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = 0;
+        values[free] = null;
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Hash with primitive long keys and primitive long values, stored with open addressing in primitive arrays.
+ * <p>
+ * Neither keys nor values are boxed. Removal shifts the following entries back, so that no tombstone is left behind.
+ * </p>
+ * <p>
+ * Similar to {@link MutableHash}, methods named xxxInPlace change the hash itself, while the others return a new hash.
+ * </p>
+ *
+ * @see Hashes#newLongLongHash()
+ */
+public final class LongLongHash {
+    private final float loadFactor;
+
+    /*
+     * Key 0 marks an empty slot, so the mapping of key 0 is held aside.
+     */
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    LongLongHash(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize should not be negative.");
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("loadFactor should be within (0, 1).");
+        }
+        this.loadFactor = loadFactor;
+        allocate(IntHash.capacityFor(expectedSize, loadFactor));
+    }
+
+    private LongLongHash(LongLongHash another) {
+        this.loadFactor = another.loadFactor;
+        this.keys = another.keys.clone();
+        this.values = another.values.clone();
+        this.mask = another.mask;
+        this.threshold = another.threshold;
+        this.size = another.size;
+        this.hasZeroKey = another.hasZeroKey;
+        this.zeroValue = another.zeroValue;
+    }
+
+    /**
+     * Represents a predicate of a long key and a long value.
+     */
+    @FunctionalInterface
+    public interface LongLongPredicate {
+        boolean test(long key, long value);
+    }
+
+    /**
+     * Represents an operation on a long key and a long value.
+     */
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : slotOf(key) >= 0;
+    }
+
+    public boolean containsValue(long value) {
+        return containsAny((k, v) -> v == value);
+    }
+
+    /**
+     * Check whether this hash contains any key-value pair that satisfies the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public boolean containsAny(LongLongPredicate condition) {
+        Objects.requireNonNull(condition);
+        if (hasZeroKey && condition.test(0, zeroValue)) {
+            return true;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && condition.test(keys[i], values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the value of the key, or defaultValue if the key is absent
+     */
+    public long get(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = slotOf(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * @return all the keys of this hash, in no particular order
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return all the values of this hash, in the same order as {@link #keys()}
+     */
+    public long[] values() {
+        long[] result = new long[size];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = zeroValue;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                result[n++] = values[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the keys whose value is the given value
+     */
+    public long[] keysOf(long value) {
+        long[] result = new long[count(value)];
+        int[] n = {0};
+        forEach((k, v) -> {
+            if (v == value) {
+                result[n[0]++] = k;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Iterate each key-value pair of the hash.
+     *
+     * @throws NullPointerException if action is null
+     */
+    public void forEach(LongLongConsumer action) {
+        Objects.requireNonNull(action);
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of the specified value in this hash
+     */
+    public int count(long value) {
+        return countIf((k, v) -> v == value);
+    }
+
+    /**
+     * Returns the number of entries which satisfy the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public int countIf(LongLongPredicate condition) {
+        Objects.requireNonNull(condition);
+        int count = 0;
+        if (hasZeroKey && condition.test(0, zeroValue)) {
+            count++;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && condition.test(keys[i], values[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public LongLongHash put(long key, long value) {
+        return new LongLongHash(this).putInPlace(key, value);
+    }
+
+    public LongLongHash putIfAbsent(long key, long value) {
+        return new LongLongHash(this).putIfAbsentInPlace(key, value);
+    }
+
+    public LongLongHash remove(long key) {
+        return new LongLongHash(this).removeInPlace(key);
+    }
+
+    /**
+     * Return a new hash in which the value of the key is increased by delta.
+     * An absent key is regarded as mapped to 0.
+     */
+    public LongLongHash increment(long key, long delta) {
+        return new LongLongHash(this).incrementInPlace(key, delta);
+    }
+
+    /**
+     * Return a new hash with the key-value pairs of this hash which satisfy the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public LongLongHash filter(LongLongPredicate condition) {
+        Objects.requireNonNull(condition);
+        LongLongHash result = new LongLongHash(0, loadFactor);
+        forEach((k, v) -> {
+            if (condition.test(k, v)) {
+                result.putInPlace(k, v);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Return a new hash with the key-value pairs of this hash which don't satisfy the condition.
+     *
+     * @throws NullPointerException if condition is null
+     */
+    public LongLongHash reject(LongLongPredicate condition) {
+        Objects.requireNonNull(condition);
+        return filter((k, v) -> !condition.test(k, v));
+    }
+
+    /**
+     * Returns a new hash containing the mappings of the specified hash and this hash itself.
+     * The value for entries with duplicate keys will be that of the specified hash.
+     */
+    public LongLongHash merge(LongLongHash another) {
+        return new LongLongHash(this).mergeInPlace(another);
+    }
+
+    /**
+     * In-place method of {@link #put(long, long)}
+     */
+    public LongLongHash putInPlace(long key, long value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return this;
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return this;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #putIfAbsent(long, long)}
+     */
+    public LongLongHash putIfAbsentInPlace(long key, long value) {
+        if (!containsKey(key)) {
+            putInPlace(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #remove(long)}
+     */
+    public LongLongHash removeInPlace(long key) {
+        if (key == 0) {
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = 0;
+                size--;
+            }
+            return this;
+        }
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            removeAt(slot);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #increment(long, long)}
+     */
+    public LongLongHash incrementInPlace(long key, long delta) {
+        if (key != 0) {
+            int slot = slotOf(key);
+            if (slot >= 0) {
+                values[slot] += delta;
+                return this;
+            }
+        }
+        return putInPlace(key, get(key, 0) + delta);
+    }
+
+    /**
+     * In-place method of {@link #filter(LongLongPredicate)}
+     */
+    public LongLongHash filterInPlace(LongLongPredicate condition) {
+        Objects.requireNonNull(condition);
+        if (hasZeroKey && !condition.test(0, zeroValue)) {
+            removeInPlace(0);
+        }
+        long[] rejected = new long[8];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && !condition.test(keys[i], values[i])) {
+                if (n == rejected.length) {
+                    rejected = Arrays.copyOf(rejected, n * 2);
+                }
+                rejected[n++] = keys[i];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            removeInPlace(rejected[i]);
+        }
+        return this;
+    }
+
+    /**
+     * In-place method of {@link #reject(LongLongPredicate)}
+     */
+    public LongLongHash rejectInPlace(LongLongPredicate condition) {
+        Objects.requireNonNull(condition);
+        return filterInPlace((k, v) -> !condition.test(k, v));
+    }
+
+    /**
+     * In-place method of {@link #merge(LongLongHash)}
+     */
+    public LongLongHash mergeInPlace(LongLongHash another) {
+        if (another != null) {
+            another.forEach(this::putInPlace);
+        }
+        return this;
+    }
+
+    /**
+     * Remove all the key-value pairs of this hash, keeping its capacity.
+     *
+     * @return the hash itself after clear
+     */
+    public LongLongHash clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+        return this;
+    }
+
+    /**
+     * @return a boxed copy of this hash
+     */
+    public MutableHash<Long, Long> toHash() {
+        MutableHash<Long, Long> result = Hashes.newMutableHash();
+        forEach(result::putInPlace);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof LongLongHash)) {
+            return false;
+        }
+        LongLongHash another = (LongLongHash) o;
+        if (another.size != size) {
+            return false;
+        }
+        return !containsAny((k, v) -> !another.containsKey(k) || another.get(k, 0) != v);
+    }
+
+    @Override
+    public int hashCode() {
+        int[] h = {0};
+        forEach((k, v) -> h[0] += Long.hashCode(k) ^ Long.hashCode(v));
+        return h[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(k).append('=').append(v);
+        });
+        return builder.append('}').toString();
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private void rehash(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalStateException("LongLongHash can not grow beyond " + (1 << 30) + " slots.");
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at the slot, shifting back the following entries of the same probe sequence.
+     */
+    private void removeAt(int slot) {
+        size--;
+        int free = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = keys[i];
+            if (key == 0) {
+                break;
+            }
+            int home = hash(key) & mask;
+            // the entry can move to the free slot only if its home is not within (free, i]
+            if (free <= i ? (home <= free || home > i) : (home <= free && home > i)) {
+                keys[free] = key;
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = 0;
+        values[free] = 0;
+    }
+}
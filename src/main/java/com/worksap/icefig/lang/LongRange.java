@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An arithmetic {@link Range} of long values, with a fixed step.
+ * <p>
+ * Elements are computed from their index rather than generated one by one, so that size, contains and get
+ * take O(1) time, and iteration needs neither boxing nor comparison. The range is immutable: the setters
+ * inherited from {@link Range} throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @see Range#ofLong(long, long, long)
+ */
+public final class LongRange extends Range<Long> {
+    private final long first;
+    private final long step;
+    private final long size;
+
+    LongRange(long from, long to, long step) {
+        super(from, to, true, i -> i + step);
+        if (step == 0) {
+            throw new IllegalArgumentException("step should not be zero.");
+        }
+        this.first = from;
+        this.step = step;
+        if (from == to) {
+            this.size = 1;
+        } else if ((to > from) == (step > 0)) {
+            // the distance and the step are compared as unsigned, since they may not fit in a signed long
+            long steps = Long.divideUnsigned(step > 0 ? to - from : from - to, step > 0 ? step : -step);
+            if (steps < 0 || steps == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("The range has more than " + Long.MAX_VALUE + " elements.");
+            }
+            this.size = steps + 1;
+        } else {
+            this.size = 0;
+        }
+    }
+
+    /**
+     * @return the difference between two adjacent elements
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * @return the number of elements in this range
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Same as {@link #size()}, in O(1) time.
+     */
+    @Override
+    public long count() {
+        return size;
+    }
+
+    /**
+     * @return whether the value is one of the elements of this range
+     */
+    public boolean contains(long value) {
+        if (size == 0) {
+            return false;
+        }
+        long last = elementAt(size - 1);
+        if (value < Math.min(first, last) || value > Math.max(first, last)) {
+            return false;
+        }
+        return Long.remainderUnsigned(step > 0 ? value - first : first - value, step > 0 ? step : -step) == 0;
+    }
+
+    /**
+     * @return the element at the index
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    public long get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elementAt(index);
+    }
+
+    /**
+     * Iterate each element of the range, without boxing.
+     *
+     * @throws NullPointerException if action is null
+     */
+    public void forEachLong(LongConsumer action) {
+        Objects.requireNonNull(action);
+        long value = first;
+        for (long i = 0; i < size; i++) {
+            action.accept(value);
+            value += step;
+        }
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            long remaining = size;
+            long value = first;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public long nextLong() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                long current = value;
+                value += step;
+                remaining--;
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link Spliterator.OfLong} over the elements of the range, which is SIZED and SUBSIZED,
+     * and splits the range evenly by index.
+     */
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return new Splitr(0, size);
+    }
+
+    /**
+     * @return a sequential {@link LongStream} over the elements of the range
+     */
+    public LongStream longStream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * @return a possibly parallel {@link LongStream} over the elements of the range
+     */
+    public LongStream parallelLongStream() {
+        return StreamSupport.longStream(spliterator(), true);
+    }
+
+    /**
+     * @return an {@link LongSeq} of all the elements of this range
+     * @throws IllegalStateException if this range has more than {@link Integer#MAX_VALUE} elements
+     */
+    public LongSeq toLongSeq() {
+        long[] values = new long[checkedSize()];
+        long value = first;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value;
+            value += step;
+        }
+        return new LongSeq(values);
+    }
+
+    @Override
+    public Seq<Long> toSeq() {
+        return toMutableSeq();
+    }
+
+    @Override
+    public MutableSeq<Long> toMutableSeq() {
+        MutableSeq<Long> seq = new SeqImpl<>(checkedSize());
+        forEachLong(seq::appendInPlace);
+        return seq;
+    }
+
+    @Override
+    public Range<Long> from(Long from) {
+        throw new UnsupportedOperationException("LongRange is immutable.");
+    }
+
+    @Override
+    public Range<Long> to(Long to) {
+        throw new UnsupportedOperationException("LongRange is immutable.");
+    }
+
+    @Override
+    public Range<Long> until(Long to) {
+        throw new UnsupportedOperationException("LongRange is immutable.");
+    }
+
+    @Override
+    public Range<Long> next(Function<Long, Long> next) {
+        throw new UnsupportedOperationException("LongRange is immutable.");
+    }
+
+    @Override
+    public Range<Long> next(BiFunction<Long, Integer, Long> next) {
+        throw new UnsupportedOperationException("LongRange is immutable.");
+    }
+
+    @Override
+    public Range<Long> nextIndexed(ObjLongFunction<Long, Long> next) {
+        throw new UnsupportedOperationException("LongRange is immutable.");
+    }
+
+    private long elementAt(long index) {
+        return first + index * step;
+    }
+
+    private int checkedSize() {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The range has too many elements: " + size);
+        }
+        return (int) size;
+    }
+
+    private final class Splitr implements Spliterator.OfLong {
+        private long index;
+        private final long fence;
+
+        Splitr(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            long mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Splitr prefix = new Splitr(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(elementAt(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            for (long i = index; i < fence; i++) {
+                action.accept(elementAt(i));
+            }
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE | DISTINCT;
+        }
+    }
+}
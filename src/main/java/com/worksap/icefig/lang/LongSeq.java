@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * An immutable sequence of primitive long values, backed by a long array.
+ * <p>
+ * Unlike {@code Seq<Long>}, the elements are stored without boxing. Use {@link #toSeq()} to fall back to
+ * the full {@link Seq} API.
+ * </p>
+ *
+ * @see Seqs#newLongSeq(long...)
+ * @see IntRange#toLongSeq()
+ */
+public final class LongSeq {
+    private final long[] values;
+
+    /**
+     * Wraps the array as the elements of this seq. The array is not copied, so it must not be changed afterwards.
+     */
+    LongSeq(long[] values) {
+        this.values = values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    /**
+     * @return the element at the index
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt;= size())
+     */
+    public long get(int index) {
+        if (index < 0 || index >= values.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + values.length);
+        }
+        return values[index];
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return the index of the first occurrence of the value, or -1 if the seq does not contain it
+     */
+    public int indexOf(long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the sum of all the elements
+     */
+    public long sum() {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    public OptionalLong max() {
+        return stream().max();
+    }
+
+    public OptionalLong min() {
+        return stream().min();
+    }
+
+    /**
+     * Iterate each element of the seq, without boxing.
+     *
+     * @throws NullPointerException if action is null
+     */
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action);
+        for (long value : values) {
+            action.accept(value);
+        }
+    }
+
+    /**
+     * @return a sequential {@link LongStream} over the elements of the seq
+     */
+    public LongStream stream() {
+        return Arrays.stream(values);
+    }
+
+    /**
+     * Copy the elements into a new array. Changes of the returned array do not affect the seq.
+     */
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * @return a boxed copy of this seq
+     */
+    public Seq<Long> toSeq() {
+        MutableSeq<Long> seq = new SeqImpl<>(values.length);
+        forEach(seq::appendInPlace);
+        return seq;
+    }
+
+    /**
+     * Connect the values in decimal together to a single CharSeq, inserting a delimiter at each connection point.
+     * The builder is presized to the exact length.
+     */
+    public CharSeq join(CharSequence delimiter) {
+        return join(delimiter, "", "");
+    }
+
+    /**
+     * Connect the values in decimal together to a single CharSeq, inserting a delimiter at each connection point,
+     * and adding prefix and suffix to the result. The builder is presized to the exact length.
+     */
+    public CharSeq join(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
+        long length = (long) prefix.length() + suffix.length() + (long) delimiter.length() * Math.max(0, values.length - 1);
+        for (long value : values) {
+            length += Appendables.stringSize(value);
+        }
+        StringBuilder builder = length <= Integer.MAX_VALUE - 8 ? new StringBuilder((int) length) : new StringBuilder();
+        try {
+            joinTo(builder, delimiter, prefix, suffix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return CharSeq.of(builder.toString());
+    }
+
+    /**
+     * Append the values in decimal to the appendable, inserting a delimiter at each connection point.
+     *
+     * @return the appendable
+     * @throws IOException if the appendable throws it
+     */
+    public <A extends Appendable> A joinTo(A appendable, CharSequence delimiter) throws IOException {
+        return joinTo(appendable, delimiter, "", "");
+    }
+
+    /**
+     * Append the values in decimal to the appendable, inserting a delimiter at each connection point,
+     * and adding prefix and suffix. The values are formatted without creating a String for each of them.
+     *
+     * @return the appendable
+     * @throws NullPointerException if appendable is null
+     * @throws IOException          if the appendable throws it
+     */
+    public <A extends Appendable> A joinTo(A appendable, CharSequence delimiter, CharSequence prefix, CharSequence suffix) throws IOException {
+        Appendables out = new Appendables(Objects.requireNonNull(appendable));
+        out.append(prefix);
+        for (int i = 0; i < values.length; i++) {
+            if (i != 0) {
+                out.append(delimiter);
+            }
+            out.appendLong(values[i]);
+        }
+        out.append(suffix);
+        return appendable;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(values, ((LongSeq) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * A read-only seq of fixed-width records in a memory-mapped file, which is opened in O(1) time without loading
+ * the records into the heap.
+ * <p>
+ * The file is mapped in chunks of whole records, so files larger than 2GB are supported. The decoder reads
+ * each record directly from the mapped chunk, so {@link #get(int)} takes O(1) time and iteration copies nothing
+ * but what the decoder builds. {@link #subSeq(int, int)} returns a view sharing the mapping.
+ * </p>
+ * <p>
+ * The decoder should only use the absolute get methods of the buffer, since the chunks are shared by the views and
+ * threads, which is what makes this seq thread-safe. The mapping is released when the seq is garbage collected.
+ * </p>
+ * <p>
+ * The lookups of {@link Seq} scan the records in place, while the methods resulting a new seq decode
+ * all the records into an in-memory seq first.
+ * </p>
+ *
+ * @see Seqs#openMappedSeq(Path, int, Decoder)
+ */
+public final class MappedSeq<T> extends AbstractSeq<T> {
+    /**
+     * Decodes a record from a mapped chunk.
+     */
+    @FunctionalInterface
+    public interface Decoder<T> {
+        /**
+         * @param buffer the mapped chunk holding the record
+         * @param offset the offset of the first byte of the record in the chunk
+         * @return the decoded record
+         */
+        T decode(ByteBuffer buffer, int offset);
+    }
+
+    /**
+     * The maximum size of a mapped chunk, which is the limit of a ByteBuffer.
+     */
+    static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+    private final ByteBuffer[] chunks;
+    private final int recordSize;
+    private final int recordsPerChunk;
+    private final Decoder<T> decoder;
+    private final long from;
+    private final int size;
+
+    private MappedSeq(ByteBuffer[] chunks, int recordSize, int recordsPerChunk, Decoder<T> decoder, long from, int size) {
+        this.chunks = chunks;
+        this.recordSize = recordSize;
+        this.recordsPerChunk = recordsPerChunk;
+        this.decoder = decoder;
+        this.from = from;
+        this.size = size;
+    }
+
+    /**
+     * Maps the file in chunks of at most maxChunkSize bytes, rounded down to whole records.
+     */
+    static <T> MappedSeq<T> open(Path file, int recordSize, Decoder<T> decoder, int maxChunkSize) {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(decoder);
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("recordSize should be a positive number.");
+        }
+        int recordsPerChunk = Math.max(1, maxChunkSize / recordSize);
+        long chunkBytes = (long) recordsPerChunk * recordSize;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % recordSize != 0) {
+                throw new IllegalArgumentException("The file size " + length + " is not a multiple of recordSize " + recordSize + ".");
+            }
+            long count = length / recordSize;
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The file has more than Integer.MAX_VALUE records.");
+            }
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((count + recordsPerChunk - 1) / recordsPerChunk)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = i * chunkBytes;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkBytes, length - position));
+            }
+            return new MappedSeq<>(chunks, recordSize, recordsPerChunk, decoder, 0, (int) count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes the record at index in O(1) time. A negative index counts from the end of self.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   (<tt>index &gt;= size() || index &lt; -size()</tt>)
+     */
+    @Override
+    public T get(int index) {
+        if (index >= size || index < -size)
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size + ", should be within [" + (-size) + ", " + size + ")");
+        return decode(index >= 0 ? index : size + index);
+    }
+
+    /**
+     * Returns a view of the records from fromIndex, inclusive, to toIndex, exclusive, in O(1) time.
+     *
+     * @throws IndexOutOfBoundsException if fromIndex &lt; 0, toIndex &gt; size() or fromIndex &gt; toIndex
+     */
+    @Override
+    public MappedSeq<T> subSeq(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex " + fromIndex + ", toIndex " + toIndex + ", size " + size);
+        }
+        return new MappedSeq<>(chunks, recordSize, recordsPerChunk, decoder, from + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int cursor;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return decode(cursor++);
+            }
+        };
+    }
+
+    /**
+     * Takes action on each record with its index.
+     *
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEach(BiConsumer<? super T, Integer> action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < size; i++) {
+            action.accept(decode(i), i);
+        }
+    }
+
+    /**
+     * Returns the index of the first record which is not less than t, or the size of this seq if there is none,
+     * by a binary search in O(log n) time. The records should be sorted by the comparator.
+     *
+     * @throws NullPointerException if comparator is null
+     */
+    public int lowerBound(T t, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(decode(mid), t) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first record which is greater than t, or the size of this seq if there is none,
+     * by a binary search in O(log n) time. The records should be sorted by the comparator.
+     *
+     * @throws NullPointerException if comparator is null
+     */
+    public int upperBound(T t, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(decode(mid), t) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first record equal to t by the comparator, or -1 if there is none,
+     * by a binary search in O(log n) time. The records should be sorted by the comparator.
+     *
+     * @throws NullPointerException if comparator is null
+     */
+    public int indexOf(T t, Comparator<? super T> comparator) {
+        int index = lowerBound(t, comparator);
+        return index < size && comparator.compare(decode(index), t) == 0 ? index : -1;
+    }
+
+    /**
+     * Decodes all the records into an in-memory seq.
+     */
+    @Override
+    public MutableSeq<T> toSeq() {
+        MutableSeq<T> seq = new SeqImpl<>(size);
+        for (int i = 0; i < size; i++) {
+            seq.appendInPlace(decode(i));
+        }
+        return seq;
+    }
+
+    private T decode(int index) {
+        long record = from + index;
+        return decoder.decode(chunks[(int) (record / recordsPerChunk)], (int) (record % recordsPerChunk) * recordSize);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedSeq[size=" + size + ", recordSize=" + recordSize + "]";
+    }
+}
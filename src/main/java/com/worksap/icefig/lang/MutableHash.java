@@ -116,4 +116,72 @@ public interface MutableHash<K, V> extends Hash<K, V> {
      * In-place method of {@link #replaceAll(BiFunction)}
      */
     MutableHash<K, V> replaceAllInPlace(BiFunction<? super K, ? super V, ? extends V> function);
+
+    /**
+     * Computes a new value for the key from the key and its current value (or null if absent).
+     * If the new value is null, the mapping is removed.
+     * <p>
+     * For hashes created by {@link Hashes#newConcurrentHash()}, the whole computation is performed atomically.
+     * </p>
+     *
+     * @param k        key with which the computed value is to be associated
+     * @param function the function to compute a value
+     * @return the hash itself after changed
+     * @throws NullPointerException if function is null
+     */
+    MutableHash<K, V> computeInPlace(K k, BiFunction<? super K, ? super V, ? extends V> function);
+
+    /**
+     * Associates the key with the given value if it is absent, otherwise replaces its value
+     * with the result of the function on the current value and the given one.
+     * If the result is null, the mapping is removed.
+     * <p>
+     * For hashes created by {@link Hashes#newConcurrentHash()}, the whole computation is performed atomically.
+     * </p>
+     *
+     * @param k        key with which the resulting value is to be associated
+     * @param v        the value to be merged with the existing value
+     * @param function the function to recompute a value if present
+     * @return the hash itself after changed
+     * @throws NullPointerException if function is null
+     */
+    MutableHash<K, V> mergeInPlace(K k, V v, BiFunction<? super V, ? super V, ? extends V> function);
+
+    /**
+     * Adds delta to the value of the key, treating an absent key as zero.
+     * Values must be one of Integer, Long, Double, BigInteger or BigDecimal, of the same type as delta.
+     * <p>
+     * For hashes created by {@link Hashes#newConcurrentHash()}, the increment is performed atomically.
+     * </p>
+     *
+     * @param k     the key whose value is to be increased
+     * @param delta the amount to add
+     * @return the hash itself after changed
+     * @throws NullPointerException     if delta is null
+     * @throws IllegalArgumentException if the value or delta is not a supported number type
+     */
+    MutableHash<K, V> incrementInPlace(K k, V delta);
+
+    /**
+     * Turns this hash into an immutable one in O(1) time, without copying the mappings.
+     * <p>
+     * The ownership of the mappings is transferred to the returned hash, which is this hash itself:
+     * any later in-place method called on this hash throws {@link UnsupportedOperationException}.
+     * It is therefore safe to publish the returned hash to other threads.
+     * </p>
+     *
+     * @return this hash, as an immutable hash
+     */
+    Hash<K, V> freeze();
+
+    /**
+     * Returns an immutable snapshot of the current mappings of this hash in O(1) time.
+     * <p>
+     * The snapshot shares the mappings with this hash until the next in-place method is called on this hash,
+     * which copies them first (copy-on-write). Later changes of this hash are never visible in the snapshot.
+     * </p>
+     *
+     * @return an immutable snapshot of this hash
+     */
+    Hash<K, V> snapshot();
 }
@@ -49,9 +49,27 @@ public interface MutableSeq<T> extends Seq<T> {
     @Override
     MutableSeq<T> sort(Comparator<? super T> comparator);
 
+    @Override
+    <K extends Comparable<? super K>> MutableSeq<T> sortBy(Function<? super T, ? extends K> keyExtractor);
+
+    @Override
+    <K> MutableSeq<T> sortBy(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator);
+
+    @Override
+    MutableSeq<T> sortByInt(ToIntFunction<? super T> keyExtractor);
+
+    @Override
+    MutableSeq<T> sortByLong(ToLongFunction<? super T> keyExtractor);
+
     @Override
     MutableSeq<T> distinct();
 
+    @Override
+    MutableSeq<T> maxN(int k, Comparator<? super T> comparator);
+
+    @Override
+    MutableSeq<T> minN(int k, Comparator<? super T> comparator);
+
     @Override
     MutableSeq<T> append(T value);
 
@@ -209,6 +227,27 @@ public interface MutableSeq<T> extends Seq<T> {
      */
     MutableSeq<T> sortInPlace(Comparator<? super T> comparator);
 
+    /**
+     * Sorts the first k elements in place, so that they are the k minimum elements in ascending order,
+     * while the order of the rest is unspecified. It takes O(n + k log k) time by a selection,
+     * which is faster than {@link #sortInPlace(Comparator)} when only the first k elements are needed.
+     *
+     * @param k the number of elements to sort. If it is larger than the size, the whole seq is sorted
+     * @throws NullPointerException     if comparator is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    MutableSeq<T> partialSortInPlace(int k, Comparator<? super T> comparator);
+
+    /**
+     * Sorts this seq in place like {@link #sortInPlace(Comparator)}, but with {@link java.util.Arrays#parallelSort}
+     * on the common fork-join pool, which is faster for large seqs. Small seqs are sorted sequentially.
+     *
+     * @param comparator the comparator to determine the order of the seq. A
+     *                   {@code null} value indicates that the elements' <i>natural
+     *                   ordering</i> should be used.
+     */
+    MutableSeq<T> parallelSortInPlace(Comparator<? super T> comparator);
+
 
     /**
      * In-place method of {@link #filter(Predicate)}
@@ -259,4 +298,27 @@ public interface MutableSeq<T> extends Seq<T> {
      * In-place method of {@link #rotate(int)}
      */
     MutableSeq<T> rotateInPlace(int distance);
+
+    /**
+     * Turns this seq into an immutable one in O(1) time, without copying the elements.
+     * <p>
+     * The ownership of the elements is transferred to the returned seq, which is this seq itself:
+     * any later in-place method called on this seq throws {@link UnsupportedOperationException}.
+     * It is therefore safe to publish the returned seq to other threads.
+     * </p>
+     *
+     * @return this seq, as an immutable seq
+     */
+    Seq<T> freeze();
+
+    /**
+     * Returns an immutable snapshot of the current elements of this seq in O(1) time.
+     * <p>
+     * The snapshot shares the elements with this seq until the next in-place method is called on this seq,
+     * which copies them first (copy-on-write). Later changes of this seq are never visible in the snapshot.
+     * </p>
+     *
+     * @return an immutable snapshot of this seq
+     */
+    Seq<T> snapshot();
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * An interface extending {@link SortedHash} (which is immutable), with the in-place methods of {@link MutableHash}.
+ */
+public interface MutableSortedHash<K, V> extends SortedHash<K, V>, MutableHash<K, V> {
+    @Override
+    MutableSortedHash<K, V> put(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> putIfAbsent(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> filter(BiPredicate<K, V> condition);
+
+    @Override
+    MutableSortedHash<K, V> reject(BiPredicate<K, V> condition);
+
+    @Override
+    MutableSortedHash<K, V> merge(Hash<? extends K, ? extends V> another);
+
+    @Override
+    MutableSortedHash<K, V> remove(K k);
+
+    @Override
+    MutableSortedHash<K, V> remove(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> replace(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> replace(K k, V oldValue, V newValue);
+
+    @Override
+    MutableSortedHash<K, V> replaceAll(BiFunction<? super K, ? super V, ? extends V> function);
+
+    @Override
+    MutableSortedHash<K, V> putInPlace(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> putIfAbsentInPlace(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> removeInPlace(K k);
+
+    @Override
+    MutableSortedHash<K, V> removeInPlace(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> filterInPlace(BiPredicate<K, V> condition);
+
+    @Override
+    MutableSortedHash<K, V> rejectInPlace(BiPredicate<K, V> condition);
+
+    @Override
+    MutableSortedHash<K, V> mergeInPlace(Hash<? extends K, ? extends V> another);
+
+    @Override
+    MutableSortedHash<K, V> clear();
+
+    @Override
+    MutableSortedHash<K, V> replaceInPlace(K k, V v);
+
+    @Override
+    MutableSortedHash<K, V> replaceInPlace(K k, V oldValue, V newValue);
+
+    @Override
+    MutableSortedHash<K, V> replaceAllInPlace(BiFunction<? super K, ? super V, ? extends V> function);
+
+    @Override
+    MutableSortedHash<K, V> computeInPlace(K k, BiFunction<? super K, ? super V, ? extends V> function);
+
+    @Override
+    MutableSortedHash<K, V> mergeInPlace(K k, V v, BiFunction<? super V, ? super V, ? extends V> function);
+
+    @Override
+    MutableSortedHash<K, V> incrementInPlace(K k, V delta);
+
+    @Override
+    MutableSortedHash<K, V> subHash(K fromKey, K toKey);
+
+    @Override
+    MutableSortedHash<K, V> headHash(K toKey);
+
+    @Override
+    MutableSortedHash<K, V> tailHash(K fromKey);
+
+    @Override
+    SortedHash<K, V> freeze();
+
+    @Override
+    SortedHash<K, V> snapshot();
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A {@link SortedSeq} with in-place methods which keep it sorted.
+ * <p>
+ * Elements are added by the sorted insertions {@link #insertInPlace(Object)} and {@link #insertInPlace(Collection)}.
+ * The in-place methods which would break the order, such as appendInPlace, set or reverseInPlace,
+ * throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @see Seqs#newMutableSortedSeq(Comparator, Collection)
+ */
+public interface MutableSortedSeq<T> extends SortedSeq<T>, MutableSeq<T> {
+    /**
+     * Inserts the value after the elements equal to it, keeping this seq sorted.
+     * It takes O(log n) time to find the position, plus the time to shift the following elements.
+     *
+     * @return this seq
+     */
+    MutableSortedSeq<T> insertInPlace(T value);
+
+    /**
+     * Inserts all the values, keeping this seq sorted. Equal elements already in this seq come first.
+     *
+     * @return this seq
+     * @throws NullPointerException if the parameter values is null
+     */
+    MutableSortedSeq<T> insertInPlace(Collection<? extends T> values);
+
+    /**
+     * Sorts this seq in place. As this seq is already sorted, only its own comparator is accepted.
+     *
+     * @throws UnsupportedOperationException if the comparator is not the one of this seq
+     */
+    @Override
+    MutableSortedSeq<T> sortInPlace(Comparator<? super T> comparator);
+
+    /**
+     * As this seq is already sorted, only its own comparator is accepted, and nothing is changed.
+     *
+     * @throws UnsupportedOperationException if the comparator is not the one of this seq
+     */
+    @Override
+    MutableSortedSeq<T> partialSortInPlace(int k, Comparator<? super T> comparator);
+
+    /**
+     * As this seq is already sorted, only its own comparator is accepted, and nothing is changed.
+     *
+     * @throws UnsupportedOperationException if the comparator is not the one of this seq
+     */
+    @Override
+    MutableSortedSeq<T> parallelSortInPlace(Comparator<? super T> comparator);
+
+    @Override
+    MutableSortedSeq<T> subSeq(int fromIndex, int toIndex);
+
+    @Override
+    MutableSortedSeq<T> distinct();
+
+    @Override
+    MutableSortedSeq<T> filter(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> filter(BiPredicate<T, Integer> condition);
+
+    @Override
+    MutableSortedSeq<T> filterWhile(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> filterWhile(BiPredicate<T, Integer> condition);
+
+    @Override
+    MutableSortedSeq<T> reject(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> reject(BiPredicate<T, Integer> condition);
+
+    @Override
+    MutableSortedSeq<T> rejectWhile(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> rejectWhile(BiPredicate<T, Integer> condition);
+
+    @Override
+    MutableSortedSeq<T> clear();
+
+    @Override
+    MutableSortedSeq<T> distinctInPlace();
+
+    @Override
+    MutableSortedSeq<T> compactInPlace();
+
+    @Override
+    MutableSortedSeq<T> filterInPlace(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> filterInPlace(BiPredicate<T, Integer> condition);
+
+    @Override
+    MutableSortedSeq<T> filterWhileInPlace(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> filterWhileInPlace(BiPredicate<T, Integer> condition);
+
+    @Override
+    MutableSortedSeq<T> rejectInPlace(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> rejectInPlace(BiPredicate<T, Integer> condition);
+
+    @Override
+    MutableSortedSeq<T> rejectWhileInPlace(Predicate<T> condition);
+
+    @Override
+    MutableSortedSeq<T> rejectWhileInPlace(BiPredicate<T, Integer> condition);
+
+    @Override
+    SortedSeq<T> freeze();
+
+    @Override
+    SortedSeq<T> snapshot();
+}
@@ -16,28 +16,50 @@
 
 package com.worksap.icefig.lang;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Range is an element generator on the basis of start point,
  * end point and next element function.
  */
 public class Range<C extends Comparable<C>> implements Iterable<C> {
+    /**
+     * The number of elements in each batch cut from a range of unknown size for a parallel reduction.
+     */
+    private static final int PARALLEL_BATCH = 1024;
+
+    /**
+     * Represents a function of an element and its index as a long.
+     */
+    @FunctionalInterface
+    public interface ObjLongFunction<T, R> {
+        R apply(T t, long index);
+    }
+
     private C from;
     private C to;
     private boolean toIncluded;
     private Function<C, C> next;
-    private BiFunction<C, Integer, C> biNext;
+    private ObjLongFunction<C, C> indexedNext;
 
     /**
      * @param from The start point.
@@ -59,6 +81,60 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
         this.next(next);
     }
 
+    /**
+     * Sets all the fields directly, without calling the setters which subclasses may override.
+     */
+    Range(C from, C to, boolean toIncluded, Function<C, C> next) {
+        this.from = from;
+        this.to = to;
+        this.toIncluded = toIncluded;
+        this.next = next;
+    }
+
+    /**
+     * Create a range of int values from the start point to the end point, both included, with step 1.
+     *
+     * @see #ofInt(int, int, int)
+     */
+    public static IntRange ofInt(int from, int to) {
+        return new IntRange(from, to, 1);
+    }
+
+    /**
+     * Create a range of int values from the start point to the end point, both included, stepping by step.
+     * <p>
+     * The returned range iterates primitive ints without boxing, and answers size, contains and get in O(1) time.
+     * It is empty if the step leads away from the end point.
+     * </p>
+     *
+     * @throws IllegalArgumentException if step is 0
+     */
+    public static IntRange ofInt(int from, int to, int step) {
+        return new IntRange(from, to, step);
+    }
+
+    /**
+     * Create a range of long values from the start point to the end point, both included, with step 1.
+     *
+     * @see #ofLong(long, long, long)
+     */
+    public static LongRange ofLong(long from, long to) {
+        return new LongRange(from, to, 1);
+    }
+
+    /**
+     * Create a range of long values from the start point to the end point, both included, stepping by step.
+     * <p>
+     * The returned range iterates primitive longs without boxing, and answers size, contains and get in O(1) time.
+     * It is empty if the step leads away from the end point.
+     * </p>
+     *
+     * @throws IllegalArgumentException if step is 0
+     */
+    public static LongRange ofLong(long from, long to, long step) {
+        return new LongRange(from, to, step);
+    }
+
     /**
      * Set start point
      *
@@ -114,7 +190,9 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
     }
 
     /**
-     * Set next element generator.
+     * Set next element generator, which takes the current element and its index.
+     * Iterating more than {@link Integer#MAX_VALUE} steps with it throws {@link ArithmeticException},
+     * use {@link #nextIndexed(ObjLongFunction)} for longer ranges.
      *
      * @param next The next element generator
      * @return Current range object.
@@ -122,7 +200,24 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
      */
     public Range<C> next(BiFunction<C, Integer, C> next) {
         Objects.requireNonNull(next);
-        this.biNext = next;
+        this.indexedNext = (current, index) -> next.apply(current, Math.toIntExact(index));
+        return this;
+    }
+
+    /**
+     * Set next element generator, which takes the current element and its index as a long.
+     * <p>
+     * Unlike {@link #next(BiFunction)}, the index neither overflows after {@link Integer#MAX_VALUE} steps
+     * nor is boxed on every step.
+     * </p>
+     *
+     * @param next The next element generator
+     * @return Current range object.
+     * @throws NullPointerException if next is null.
+     */
+    public Range<C> nextIndexed(ObjLongFunction<C, C> next) {
+        Objects.requireNonNull(next);
+        this.indexedNext = next;
         return this;
     }
 
@@ -153,23 +248,34 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
      * @throws NullPointerException if action, this.from, this.to or this.next is null.
      */
     public void forEach(Consumer<? super C> action) {
-        forEach((e, i) -> action.accept(e));
+        Objects.requireNonNull(action);
+        forEachIndexed((e, i) -> action.accept(e));
     }
 
     /**
      * Similar to {@link #forEach(Consumer)}, with additional parameter "index" as the second parameter of the lambda expression.
      *
      * @throws NullPointerException if action, this.from, this.to or this.next is null.
+     * @throws ArithmeticException  if the index exceeds {@link Integer#MAX_VALUE}; use {@link #forEachIndexed} instead.
      */
     public void forEach(BiConsumer<? super C, Integer> action) {
+        Objects.requireNonNull(action);
+        forEachIndexed((e, i) -> action.accept(e, Math.toIntExact(i)));
+    }
+
+    /**
+     * Similar to {@link #forEach(BiConsumer)}, with the index as a long, which is neither boxed nor overflows.
+     *
+     * @throws NullPointerException if action, this.from, this.to or this.next is null.
+     */
+    public void forEachIndexed(ObjLongConsumer<? super C> action) {
         Objects.requireNonNull(action);
         Objects.requireNonNull(to);
 
-        Itr itr = new Itr();
+        Iterator<C> itr = iterator();
+        long idx = 0;
         while (itr.hasNext()) {
-            int idx = itr.cursor;
-            C current = itr.next();
-            action.accept(current, idx);
+            action.accept(itr.next(), idx++);
         }
     }
 
@@ -194,9 +300,34 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
         return new Itr();
     }
 
+    /**
+     * Creates an ORDERED and NONNULL {@link Spliterator} over the elements of the range.
+     * <p>
+     * Since each element is generated from the previous one, the size is unknown in advance,
+     * and the spliterator splits by handing the following elements out in array batches of growing size.
+     * </p>
+     *
+     * @throws NullPointerException if this.from or this.next is null.
+     */
     @Override
     public Spliterator<C> spliterator() {
-        throw new UnsupportedOperationException("spliterator");
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * @return a sequential {@link Stream} over the elements of the range
+     * @throws NullPointerException if this.from or this.next is null.
+     */
+    public Stream<C> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return a possibly parallel {@link Stream} over the elements of the range
+     * @throws NullPointerException if this.from or this.next is null.
+     */
+    public Stream<C> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
     /**
@@ -209,10 +340,10 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
         if (n < 0) {
             throw new IllegalArgumentException("n");
         }
-        Itr itr = new Itr();
+        Iterator<C> itr = iterator();
         MutableSeq<C> seq = Seqs.newMutableSeq();
 
-        while (itr.hasNext() && itr.cursor < n) {
+        while (seq.size() < n && itr.hasNext()) {
             seq.appendInPlace(itr.next());
         }
 
@@ -230,7 +361,7 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
     public Seq<C> takeWhile(Predicate<C> condition) {
         Objects.requireNonNull(condition);
 
-        Itr itr = new Itr();
+        Iterator<C> itr = iterator();
         MutableSeq<C> seq = Seqs.newMutableSeq();
 
         while (itr.hasNext()) {
@@ -254,17 +385,18 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
      *                  returns true if the element satisfies the condition, otherwise returns false.
      * @return The seq containing all the elements satisfying the condition
      * @throws NullPointerException if condition is null
+     * @throws ArithmeticException  if the index exceeds {@link Integer#MAX_VALUE}
      */
     public Seq<C> takeWhile(BiPredicate<C, Integer> condition) {
         Objects.requireNonNull(condition);
 
-        Itr itr = new Itr();
+        Iterator<C> itr = iterator();
         MutableSeq<C> seq = Seqs.newMutableSeq();
 
+        long idx = 0;
         while (itr.hasNext()) {
-            int idx = itr.cursor;
             C candidate = itr.next();
-            if (!condition.test(candidate, idx)) {
+            if (!condition.test(candidate, Math.toIntExact(idx++))) {
                 break;
             }
             seq.appendInPlace(candidate);
@@ -273,8 +405,186 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
         return seq;
     }
 
+    /**
+     * Get the first n elements of this range lazily, where n may exceed {@link Integer#MAX_VALUE}.
+     *
+     * @return The generator of the first n elements.
+     * @throws IllegalArgumentException if n &lt; 0
+     * @see Generator#take(long)
+     */
+    public Generator<C> takeLong(long n) {
+        return generator().take(n);
+    }
+
+    /**
+     * Returns a lazy {@link Generator} of the elements of this range, on which operations can be chained
+     * without materializing the elements. It also works on infinite ranges, whose end point is not set.
+     */
+    public Generator<C> generator() {
+        return new Generator<>(this::iterator);
+    }
+
+    /**
+     * Transform each element of this range, lazily.
+     *
+     * @throws NullPointerException if func is null
+     * @see Generator#map(Function)
+     */
+    public <R> Generator<R> map(Function<C, R> func) {
+        return generator().map(func);
+    }
+
+    /**
+     * Keep the elements of this range which satisfy the condition, lazily.
+     *
+     * @throws NullPointerException if condition is null
+     * @see Generator#filter(Predicate)
+     */
+    public Generator<C> filter(Predicate<C> condition) {
+        return generator().filter(condition);
+    }
+
+    /**
+     * Skip the first n elements of this range, lazily.
+     *
+     * @throws IllegalArgumentException if n &lt; 0
+     * @see Generator#drop(long)
+     */
+    public Generator<C> drop(long n) {
+        return generator().drop(n);
+    }
+
+    /**
+     * Skip the elements at the front of this range which satisfy the condition, lazily.
+     *
+     * @throws NullPointerException if condition is null
+     * @see Generator#dropWhile(Predicate)
+     */
+    public Generator<C> dropWhile(Predicate<C> condition) {
+        return generator().dropWhile(condition);
+    }
+
+    /**
+     * Find the first element of this range which satisfies the condition, generating no element after it.
+     *
+     * @return the first element which satisfies the condition, or null if no such element
+     * @throws NullPointerException if condition is null
+     */
+    public C findFirst(Predicate<C> condition) {
+        return generator().findFirst(condition);
+    }
+
+    /**
+     * Performs a reduction on the elements of this range, without materializing them.
+     *
+     * @return the result of the reduction, or null if the range is empty
+     * @throws NullPointerException if accumulator is null
+     * @see Generator#reduce(BinaryOperator)
+     */
+    public C reduce(BinaryOperator<C> accumulator) {
+        return generator().reduce(accumulator);
+    }
+
+    /**
+     * Performs a reduction on the elements of this range, using the provided initial value,
+     * without materializing them.
+     *
+     * @throws NullPointerException if accumulator is null
+     * @see Generator#reduce(Object, BiFunction)
+     */
+    public <R> R reduce(R init, BiFunction<R, C, R> accumulator) {
+        return generator().reduce(init, accumulator);
+    }
+
+    /**
+     * @return the number of the elements of this range
+     * @throws NullPointerException if this.to is null, since an infinite range can not be counted
+     */
+    public long count() {
+        Objects.requireNonNull(to);
+        return generator().count();
+    }
+
+    /**
+     * Takes action on each slice of n consecutive elements of this range, holding only one slice at a time.
+     *
+     * @throws IllegalArgumentException if <tt>n &lt;= 0</tt>
+     * @throws NullPointerException     if action is null
+     * @see Generator#forEachSlice(int, Consumer)
+     */
+    public void forEachSlice(int n, Consumer<Seq<C>> action) {
+        generator().forEachSlice(n, action);
+    }
+
+    /**
+     * Performs the action on each element of this range in parallel, in the common {@link ForkJoinPool}.
+     *
+     * @throws NullPointerException if action, this.from, this.to or this.next is null.
+     * @see #parallelForEach(ForkJoinPool, Consumer)
+     */
+    public void parallelForEach(Consumer<? super C> action) {
+        parallelForEach(ForkJoinPool.commonPool(), action);
+    }
+
+    /**
+     * Performs the action on each element of this range in parallel, in the given pool.
+     * The action may be called concurrently, and in no particular order.
+     * <p>
+     * The elements are partitioned by the {@link #spliterator()} of the range. Ranges of {@link #ofInt} and
+     * {@link #ofLong} jump ahead to the middle of their index space in O(1) time, so that every part is generated
+     * in parallel. Other ranges generate their elements one by one, and hand them out to the pool in batches.
+     * </p>
+     *
+     * @throws NullPointerException if pool, action, this.from, this.to or this.next is null.
+     */
+    public void parallelForEach(ForkJoinPool pool, Consumer<? super C> action) {
+        Objects.requireNonNull(action);
+        parallelReduce(pool, null, (Void v, C e) -> {
+            action.accept(e);
+            return null;
+        }, (v1, v2) -> null);
+    }
+
+    /**
+     * Performs a reduction on the elements of this range in parallel, in the common {@link ForkJoinPool}.
+     *
+     * @throws NullPointerException if accumulator, combiner, this.from, this.to or this.next is null.
+     * @see #parallelReduce(ForkJoinPool, Object, BiFunction, BinaryOperator)
+     */
+    public <R> R parallelReduce(R identity, BiFunction<R, ? super C, R> accumulator, BinaryOperator<R> combiner) {
+        return parallelReduce(ForkJoinPool.commonPool(), identity, accumulator, combiner);
+    }
+
+    /**
+     * Performs a reduction on the elements of this range in parallel, in the given pool.
+     * <p>
+     * Each part of the range is reduced from identity with accumulator, and the results of adjacent parts
+     * are merged with combiner in the order of the range. identity must be an identity for combiner,
+     * and combiner must be associative and compatible with accumulator.
+     * </p>
+     *
+     * @throws NullPointerException if pool, accumulator, combiner, this.from, this.to or this.next is null.
+     * @see #parallelForEach(ForkJoinPool, Consumer)
+     */
+    public <R> R parallelReduce(ForkJoinPool pool, R identity, BiFunction<R, ? super C, R> accumulator,
+                                BinaryOperator<R> combiner) {
+        Objects.requireNonNull(pool);
+        Objects.requireNonNull(accumulator);
+        Objects.requireNonNull(combiner);
+        Objects.requireNonNull(to);
+
+        Spliterator<C> spliterator = spliterator();
+        long size = spliterator.estimateSize();
+        if (size == Long.MAX_VALUE) {
+            // the elements are generated one by one, so fixed-size batches are cut and forked as they are generated
+            return pool.invoke(new ReduceTask<>(new BatchSpliterator<>(spliterator), PARALLEL_BATCH, identity, accumulator, combiner));
+        }
+        long threshold = Math.max(1, size / (pool.getParallelism() * 4L));
+        return pool.invoke(new ReduceTask<>(spliterator, threshold, identity, accumulator, combiner));
+    }
+
     private class Itr implements Iterator<C> {
-        int cursor;
+        long cursor;
         C current;
         C last;
         C end;
@@ -290,7 +600,7 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
         private Itr() {
             Objects.requireNonNull(from);
 
-            if (Objects.isNull(biNext)) {
+            if (Objects.isNull(indexedNext)) {
                 Objects.requireNonNull(next);
             }
 
@@ -325,7 +635,7 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
             if (Objects.nonNull(next)) {
                 current = next.apply(current);
             } else {
-                current = biNext.apply(current, cursor);
+                current = indexedNext.apply(current, cursor);
             }
             Objects.requireNonNull(current);
             ++ cursor;
@@ -333,4 +643,95 @@ public class Range<C extends Comparable<C>> implements Iterable<C> {
             return last;
         }
     }
+
+    /**
+     * A spliterator of unknown size which splits off batches of {@link #PARALLEL_BATCH} elements.
+     */
+    private static final class BatchSpliterator<C> implements Spliterator<C> {
+        private final Spliterator<C> source;
+
+        BatchSpliterator(Spliterator<C> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super C> action) {
+            return source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super C> action) {
+            source.forEachRemaining(action);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Spliterator<C> trySplit() {
+            Object[] batch = new Object[PARALLEL_BATCH];
+            int[] n = {0};
+            while (n[0] < batch.length && source.tryAdvance(e -> batch[n[0]++] = e)) ;
+            return n[0] == 0 ? null : (Spliterator<C>) Spliterators.spliterator(batch, 0, n[0], characteristics());
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics();
+        }
+    }
+
+    /**
+     * Reduces a part of a range, forking the prefixes split off the part while it is larger than the threshold.
+     */
+    private static final class ReduceTask<C, R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<C> spliterator;
+        private final long threshold;
+        private final R identity;
+        private final BiFunction<R, ? super C, R> accumulator;
+        private final BinaryOperator<R> combiner;
+        private R partial;
+
+        ReduceTask(Spliterator<C> spliterator, long threshold, R identity,
+                   BiFunction<R, ? super C, R> accumulator, BinaryOperator<R> combiner) {
+            this.spliterator = spliterator;
+            this.threshold = threshold;
+            this.identity = identity;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            // split iteratively rather than recursively, since ranges of unknown size split into many batches
+            List<ReduceTask<C, R>> prefixes = new ArrayList<>();
+            Spliterator<C> prefix;
+            while (spliterator.estimateSize() > threshold && (prefix = spliterator.trySplit()) != null) {
+                ReduceTask<C, R> task = new ReduceTask<>(prefix, threshold, identity, accumulator, combiner);
+                task.fork();
+                prefixes.add(task);
+            }
+
+            partial = identity;
+            spliterator.forEachRemaining(this::accumulate);
+
+            if (prefixes.isEmpty()) {
+                return partial;
+            }
+            R result = prefixes.get(0).join();
+            for (int i = 1; i < prefixes.size(); i++) {
+                result = combiner.apply(result, prefixes.get(i).join());
+            }
+            return combiner.apply(result, partial);
+        }
+
+        private void accumulate(C element) {
+            partial = accumulator.apply(partial, element);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Top-k and order statistics of seqs, used by the maxN, minN, nthElement and partialSortInPlace methods of {@link Seq}.
+ */
+final class Selection {
+    /**
+     * Ranges not longer than this are sorted directly instead of partitioned.
+     */
+    private static final int SORT_THRESHOLD = 16;
+
+    private Selection() {
+
+    }
+
+    /**
+     * Returns the k greatest elements in descending order, with a bounded heap in O(n log k) time.
+     * Among equal elements, the earlier ones are taken and come first. The list should support fast random access.
+     *
+     * @throws IllegalArgumentException if k is negative
+     */
+    static <T> ArrayList<T> greatest(List<T> list, int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k should not be negative.");
+        }
+        int size = Math.min(k, list.size());
+        ArrayList<T> result = new ArrayList<>(size);
+        if (size == 0) {
+            return result;
+        }
+        // the heap holds indices with the worst taken one at its head; among equal elements, the later one is worse
+        PriorityQueue<Integer> heap = new PriorityQueue<>(size, (a, b) -> {
+            int cmp = comparator.compare(list.get(a), list.get(b));
+            return cmp != 0 ? cmp : Integer.compare(b, a);
+        });
+        for (int i = 0; i < list.size(); i++) {
+            if (heap.size() < size) {
+                heap.add(i);
+            } else if (comparator.compare(list.get(i), list.get(heap.peek())) > 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        while (!heap.isEmpty()) {
+            result.add(list.get(heap.poll()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Rearranges the elements so that the n-th one is the element which would be there if they were sorted,
+     * no element before it is greater and no element after it is less.
+     * <p>
+     * It is an introselect: a quickselect with three-way partitions around a median-of-three pivot,
+     * which takes expected O(n) time and falls back to sorting when the partitions keep being unbalanced.
+     * </p>
+     */
+    static <T> void select(T[] a, int n, Comparator<? super T> comparator) {
+        int from = 0, to = a.length;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(a.length));
+        while (to - from > SORT_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                Arrays.sort(a, from, to, comparator);
+                return;
+            }
+            T pivot = medianOfThree(a[from], a[(from + to) >>> 1], a[to - 1], comparator);
+            // [from, lt) < pivot, [lt, i) == pivot, [gt, to) > pivot
+            int lt = from, i = from, gt = to;
+            while (i < gt) {
+                int cmp = comparator.compare(a[i], pivot);
+                if (cmp < 0) {
+                    swap(a, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(a, i, --gt);
+                } else {
+                    i++;
+                }
+            }
+            if (n < lt) {
+                to = lt;
+            } else if (n >= gt) {
+                from = gt;
+            } else {
+                return;
+            }
+        }
+        Arrays.sort(a, from, to, comparator);
+    }
+
+    /**
+     * Rearranges the elements so that the first k ones are the k least elements in order,
+     * by a selection followed by sorting the first k elements, in O(n + k log k) time.
+     */
+    static <T> void partialSort(T[] a, int k, Comparator<? super T> comparator) {
+        if (k >= a.length) {
+            Arrays.sort(a, comparator);
+            return;
+        }
+        if (k > 0) {
+            select(a, k - 1, comparator);
+            Arrays.sort(a, 0, k - 1, comparator);
+        }
+    }
+
+    private static <T> T medianOfThree(T a, T b, T c, Comparator<? super T> comparator) {
+        if (comparator.compare(a, b) > 0) {
+            T t = a;
+            a = b;
+            b = t;
+        }
+        if (comparator.compare(b, c) <= 0) {
+            return b;
+        }
+        return comparator.compare(a, c) >= 0 ? a : c;
+    }
+
+    private static void swap(Object[] a, int i, int j) {
+        Object t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
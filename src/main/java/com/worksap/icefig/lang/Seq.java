@@ -16,8 +16,12 @@
 
 package com.worksap.icefig.lang;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.function.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Elegant supplement for List in JDK
@@ -89,15 +93,50 @@ public interface Seq<T> {
      * Insert a delimiter at each connection point. Add prefix and suffix to the final result.
      */
     default CharSeq join(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
-        StringBuilder stringBuilder = new StringBuilder(prefix);
-        forEach((t, i) -> {
+        int length = Appendables.joinedLength(this, delimiter, prefix, suffix);
+        StringBuilder stringBuilder = length >= 0 ? new StringBuilder(length) : new StringBuilder();
+        try {
+            joinTo(stringBuilder, delimiter, prefix, suffix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return CharSeq.of(stringBuilder.toString());
+    }
+
+    /**
+     * Convert all elements into String, and append each String to the appendable, following the same order of the seq.
+     * Insert a delimiter at each connection point.
+     *
+     * @return the appendable
+     * @throws IOException if the appendable throws it
+     */
+    default <A extends Appendable> A joinTo(A appendable, CharSequence delimiter) throws IOException {
+        return joinTo(appendable, delimiter, "", "");
+    }
+
+    /**
+     * Convert all elements into String, and append each String to the appendable, following the same order of the seq.
+     * Insert a delimiter at each connection point. Add prefix and suffix to the appended result.
+     * <p>
+     * Unlike {@link #join(CharSequence, CharSequence, CharSequence)}, the result is not built as a String,
+     * so it can be streamed into a Writer or appended to an existing buffer.
+     * </p>
+     *
+     * @return the appendable
+     * @throws NullPointerException if appendable is null
+     * @throws IOException          if the appendable throws it
+     */
+    default <A extends Appendable> A joinTo(A appendable, CharSequence delimiter, CharSequence prefix, CharSequence suffix) throws IOException {
+        Appendables out = new Appendables(Objects.requireNonNull(appendable));
+        out.append(prefix);
+        for (int i = 0; i < size(); i++) {
             if (i != 0) {
-                stringBuilder.append(delimiter);
+                out.append(delimiter);
             }
-            stringBuilder.append(t);
-        });
-        stringBuilder.append(suffix);
-        return CharSeq.of(stringBuilder.toString());
+            out.appendElement(get(i));
+        }
+        out.append(suffix);
+        return appendable;
     }
 
     /**
@@ -127,6 +166,13 @@ public interface Seq<T> {
      */
     int size();
 
+    /**
+     * Check whether this seq contains the element.
+     * <p>
+     * Elements are compared by equals. A seq which is probed repeatedly may look them up in a hash index instead
+     * of scanning, so the element type should override hashCode consistently with equals.
+     * </p>
+     */
     boolean contains(T t);
 
     /**
@@ -134,8 +180,30 @@ public interface Seq<T> {
      */
     Seq<T> shuffle();
 
+    /**
+     * Copy the elements of the seq into a new ArrayList. Changes of the returned list do not affect the seq.
+     */
     ArrayList<T> toArrayList();
 
+    /**
+     * Creates a {@link Spliterator} over the elements of the seq, which is SIZED, SUBSIZED and ORDERED,
+     * and splits the backing array in halves without copying it.
+     */
+    Spliterator<T> spliterator();
+
+    /**
+     * @return a sequential {@link Stream} over the elements of the seq
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * @return a possibly parallel {@link Stream} over the elements of the seq
+     */
+    default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 
     /**
      * Iterate each element of the seq.
@@ -227,6 +295,39 @@ public interface Seq<T> {
      */
     Seq<T> sort(Comparator<? super T> comparator);
 
+    /**
+     * Sort the seq by the keys extracted from the elements, resulting a new seq, without changing the original seq.
+     * The key of each element is computed only once, so it suits keys which are expensive to compute.
+     * The sort is stable.
+     *
+     * @throws NullPointerException if keyExtractor is null
+     */
+    <K extends Comparable<? super K>> Seq<T> sortBy(Function<? super T, ? extends K> keyExtractor);
+
+    /**
+     * Sort the seq by the keys extracted from the elements and compared by keyComparator,
+     * computing the key of each element only once. The sort is stable.
+     *
+     * @throws NullPointerException if keyExtractor or keyComparator is null
+     */
+    <K> Seq<T> sortBy(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator);
+
+    /**
+     * Sort the seq by the int keys extracted from the elements, by a radix sort in O(n) time.
+     * The key of each element is computed only once. The sort is stable.
+     *
+     * @throws NullPointerException if keyExtractor is null
+     */
+    Seq<T> sortByInt(ToIntFunction<? super T> keyExtractor);
+
+    /**
+     * Sort the seq by the long keys extracted from the elements, by a radix sort in O(n) time.
+     * The key of each element is computed only once. The sort is stable.
+     *
+     * @throws NullPointerException if keyExtractor is null
+     */
+    Seq<T> sortByLong(ToLongFunction<? super T> keyExtractor);
+
     /**
      * Reduce duplicated elements, keeping only the first occurrence, resulting a new seq.
      *
@@ -514,6 +615,10 @@ public interface Seq<T> {
 
     /**
      * Returns the number of the specified element.
+     * <p>
+     * Elements are compared by equals. A seq which is probed repeatedly may look them up in a hash index instead
+     * of scanning, so the element type should override hashCode consistently with equals.
+     * </p>
      *
      * @param element the element to countIf
      * @return the number of the specified element
@@ -734,6 +839,10 @@ public interface Seq<T> {
      * More formally, returns the lowest index <tt>i</tt> such that
      * <tt>(o==null&nbsp;?&nbsp;get(i)==null&nbsp;:&nbsp;o.equals(get(i)))</tt>,
      * or -1 if there is no such index.
+     * <p>
+     * Elements are compared by equals. A seq which is probed repeatedly may look them up in a hash index instead
+     * of scanning, so the element type should override hashCode consistently with equals.
+     * </p>
      */
     int indexOf(T t);
 
@@ -743,6 +852,10 @@ public interface Seq<T> {
      * More formally, returns the highest index <tt>i</tt> such that
      * <tt>(o==null&nbsp;?&nbsp;get(i)==null&nbsp;:&nbsp;o.equals(get(i)))</tt>,
      * or -1 if there is no such index.
+     * <p>
+     * Elements are compared by equals. A seq which is probed repeatedly may look them up in a hash index instead
+     * of scanning, so the element type should override hashCode consistently with equals.
+     * </p>
      */
     int lastIndexOf(T t);
 
@@ -969,6 +1082,59 @@ public interface Seq<T> {
         return Optional.of(candidate);
     }
 
+    /**
+     * Returns the k maximum elements of the seq in descending order, without sorting the whole seq.
+     * It keeps a bounded heap of k elements, taking O(n log k) time. Among equal elements, the earlier ones are taken, in their original order.
+     *
+     * @param k the number of elements to take. If it is larger than the size, all elements are taken
+     * @throws NullPointerException     if comparator is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    Seq<T> maxN(int k, Comparator<? super T> comparator);
+
+    /**
+     * Returns the k minimum elements of the seq in ascending order, without sorting the whole seq.
+     * It keeps a bounded heap of k elements, taking O(n log k) time. Among equal elements, the earlier ones are taken, in their original order.
+     *
+     * @param k the number of elements to take. If it is larger than the size, all elements are taken
+     * @throws NullPointerException     if comparator is null
+     * @throws IllegalArgumentException if k is negative
+     */
+    Seq<T> minN(int k, Comparator<? super T> comparator);
+
+    /**
+     * Returns the element which would be at index n if the seq were sorted by the comparator,
+     * by an introselect on a copy of the elements in expected O(n) time.
+     *
+     * @throws NullPointerException      if comparator is null
+     * @throws IndexOutOfBoundsException if n is out of range (n &lt; 0 || n &gt;= size())
+     */
+    @SuppressWarnings("unchecked")
+    default T nthElement(int n, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        if (n < 0 || n >= size()) {
+            throw new IndexOutOfBoundsException("Index " + n + ", size " + size() + ", should be within [0, " + size() + ")");
+        }
+        T[] elements = (T[]) toArray();
+        Selection.select(elements, n, comparator);
+        return elements[n];
+    }
+
+    /**
+     * Returns the median element of the seq in expected O(n) time.
+     * For a seq of even size, the lower one of the two middle elements is returned.
+     *
+     * @throws NullPointerException if comparator is null
+     * @see #nthElement(int, Comparator)
+     */
+    default Optional<T> median(Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        if (size() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(nthElement((size() - 1) / 2, comparator));
+    }
+
     /**
      * Swaps the elements at the specified positions in this seq.
      *
@@ -999,4 +1165,131 @@ public interface Seq<T> {
      *        greater than <tt>this.size()</tt>.
      */
     Seq<T> rotate(int distance);
+
+    /**
+     * Joins this seq with another seq by key (inner join), resulting a new seq.
+     * <p>
+     * For each element of this seq, in order, the combiner is applied to it and each element of other
+     * (in the order of other) whose key equals to its key. Elements without a match are dropped.
+     * It is a hash join taking O(n + m) time: the hash table is built on the smaller seq and probed with the larger one.
+     * </p>
+     *
+     * @param other    the seq to join with
+     * @param leftKey  the function to get the key of an element of this seq
+     * @param rightKey the function to get the key of an element of other
+     * @param combiner the function to combine a pair of matched elements
+     * @return the new seq of the combined pairs
+     * @throws NullPointerException if any argument is null
+     */
+    default <U, K, R> Seq<R> join(Seq<U> other, Function<? super T, ? extends K> leftKey,
+                                  Function<? super U, ? extends K> rightKey,
+                                  BiFunction<? super T, ? super U, ? extends R> combiner) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(leftKey);
+        Objects.requireNonNull(rightKey);
+        Objects.requireNonNull(combiner);
+        MutableSeq<R> result = Seqs.newMutableSeq();
+        Joins.forEachMatch(this, other, leftKey, rightKey, (t, matches) -> {
+            for (U u : matches) {
+                result.appendInPlace(combiner.apply(t, u));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Similar to {@link #join(Seq, Function, Function, BiFunction)} (left outer join), but the elements of this seq
+     * without a match are kept, combined with null.
+     *
+     * @throws NullPointerException if any argument is null
+     */
+    default <U, K, R> Seq<R> leftJoin(Seq<U> other, Function<? super T, ? extends K> leftKey,
+                                      Function<? super U, ? extends K> rightKey,
+                                      BiFunction<? super T, ? super U, ? extends R> combiner) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(leftKey);
+        Objects.requireNonNull(rightKey);
+        Objects.requireNonNull(combiner);
+        MutableSeq<R> result = Seqs.newMutableSeq();
+        Joins.forEachMatch(this, other, leftKey, rightKey, (t, matches) -> {
+            if (matches.isEmpty()) {
+                result.appendInPlace(combiner.apply(t, null));
+            }
+            for (U u : matches) {
+                result.appendInPlace(combiner.apply(t, u));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns a new seq of the elements of this seq which have at least one element of other with the same key
+     * (semi join). Each element is kept at most once, in the original order.
+     *
+     * @throws NullPointerException if any argument is null
+     * @see #join(Seq, Function, Function, BiFunction)
+     */
+    default <U, K> Seq<T> semiJoin(Seq<U> other, Function<? super T, ? extends K> leftKey,
+                                   Function<? super U, ? extends K> rightKey) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(leftKey);
+        Objects.requireNonNull(rightKey);
+        boolean[] matched = Joins.hasMatch(this, other, leftKey, rightKey);
+        return filter((t, i) -> matched[i]);
+    }
+
+    /**
+     * Returns a new seq of the elements of this seq which have no element of other with the same key (anti join),
+     * in the original order.
+     *
+     * @throws NullPointerException if any argument is null
+     * @see #semiJoin(Seq, Function, Function)
+     */
+    default <U, K> Seq<T> antiJoin(Seq<U> other, Function<? super T, ? extends K> leftKey,
+                                   Function<? super U, ? extends K> rightKey) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(leftKey);
+        Objects.requireNonNull(rightKey);
+        boolean[] matched = Joins.hasMatch(this, other, leftKey, rightKey);
+        return filter((t, i) -> !matched[i]);
+    }
+
+    /**
+     * Groups the elements by key in a single pass, resulting a hash from each key to the seq of its elements,
+     * which keep their original order.
+     *
+     * @throws NullPointerException if keyFn is null
+     */
+    @SuppressWarnings("unchecked")
+    default <K> Hash<K, Seq<T>> groupBy(Function<? super T, ? extends K> keyFn) {
+        Objects.requireNonNull(keyFn);
+        Map<K, MutableSeq<T>> groups = new HashMap<>(Joins.groupCapacityFor(size()));
+        forEach(t -> groups.computeIfAbsent(keyFn.apply(t), k -> Seqs.newMutableSeq()).appendInPlace(t));
+        return new HashImpl<>((Map<K, Seq<T>>) (Map<K, ?>) groups);
+    }
+
+    /**
+     * Folds the elements of each key in a single pass, without materializing the groups.
+     * The fold of each key starts from init, and takes the elements in their original order.
+     *
+     * @param keyFn the function to get the key of an element
+     * @param init  the initial value of the fold of every key
+     * @param fold  the function to fold an element into the accumulated value of its key
+     * @return a hash from each key to its folded value
+     * @throws NullPointerException if keyFn or fold is null
+     */
+    default <K, R> Hash<K, R> aggregateBy(Function<? super T, ? extends K> keyFn, R init, BiFunction<R, ? super T, R> fold) {
+        Objects.requireNonNull(keyFn);
+        Objects.requireNonNull(fold);
+        Map<K, R> aggregates = new HashMap<>(Joins.groupCapacityFor(size()));
+        forEach(t -> {
+            K key = keyFn.apply(t);
+            R acc = aggregates.get(key);
+            if (acc == null && !aggregates.containsKey(key)) {
+                acc = init;
+            }
+            aggregates.put(key, fold.apply(acc, t));
+        });
+        return new HashImpl<>(aggregates);
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Builder to construct a {@link Seq} by appending elements in place, without copying the seq on each append.
+ * <p>
+ * {@link #build()} hands the appended elements over to the resulting frozen seq without copying them,
+ * after which the builder can no longer be used.
+ * </p>
+ *
+ * @see Seqs#newSeqBuilder()
+ */
+public final class SeqBuilder<T> {
+    private MutableSeq<T> seq;
+
+    SeqBuilder() {
+        this.seq = new SeqImpl<>();
+    }
+
+    SeqBuilder(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize should not be negative.");
+        }
+        this.seq = new SeqImpl<>(expectedSize);
+    }
+
+    /**
+     * Append the value at the end of the seq being built.
+     *
+     * @return the builder itself
+     * @throws IllegalStateException if the seq has already been built
+     */
+    public SeqBuilder<T> append(T value) {
+        seq().appendInPlace(value);
+        return this;
+    }
+
+    /**
+     * Append the values at the end of the seq being built.
+     *
+     * @return the builder itself
+     * @throws NullPointerException  if values is null
+     * @throws IllegalStateException if the seq has already been built
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final SeqBuilder<T> append(T... values) {
+        Objects.requireNonNull(values);
+        seq().appendInPlace(values);
+        return this;
+    }
+
+    /**
+     * Append the values at the end of the seq being built.
+     *
+     * @return the builder itself
+     * @throws NullPointerException  if collection is null
+     * @throws IllegalStateException if the seq has already been built
+     */
+    public SeqBuilder<T> append(Collection<? extends T> collection) {
+        seq().appendInPlace(collection);
+        return this;
+    }
+
+    /**
+     * Append the values at the end of the seq being built.
+     *
+     * @return the builder itself
+     * @throws NullPointerException  if seq is null
+     * @throws IllegalStateException if the seq has already been built
+     */
+    public SeqBuilder<T> append(Seq<? extends T> seq) {
+        seq().appendInPlace(seq);
+        return this;
+    }
+
+    /**
+     * @return the number of elements appended so far
+     * @throws IllegalStateException if the seq has already been built
+     */
+    public int size() {
+        return seq().size();
+    }
+
+    /**
+     * Returns the frozen seq of all appended elements, in O(1) time. The builder can not be used afterwards.
+     *
+     * @return the seq built
+     * @throws IllegalStateException if the seq has already been built
+     */
+    public Seq<T> build() {
+        Seq<T> result = seq().freeze();
+        seq = null;
+        return result;
+    }
+
+    private MutableSeq<T> seq() {
+        if (seq == null) {
+            throw new IllegalStateException("The seq has already been built.");
+        }
+        return seq;
+    }
+}
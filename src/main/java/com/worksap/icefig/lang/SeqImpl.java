@@ -24,16 +24,58 @@ import java.util.function.*;
  */
 class SeqImpl<T> implements MutableSeq<T> {
 
-    private final ArrayList<T> list;
+    private ArrayList<T> list;
+
+    /*
+     * A frozen seq rejects all in-place changes.
+     * A shared seq has handed its list to a snapshot, and copies it before the next in-place change.
+     */
+    private boolean frozen;
+    private boolean shared;
+
+    /*
+     * A hash index of the elements for contains, indexOf, lastIndexOf and count, built lazily after
+     * INDEX_PROBE_THRESHOLD linear probes and dropped by any in-place change. The index is immutable,
+     * so a frozen seq may publish it to other threads through a data race safely.
+     */
+    private Index index;
+    private int probes;
+
+    /**
+     * The number of linear probes after which the index is built.
+     */
+    static final int INDEX_PROBE_THRESHOLD = 16;
+    /**
+     * Seqs smaller than this are scanned, as a linear scan of them is as fast as hashing.
+     */
+    static final int MIN_INDEXED_SIZE = 32;
+    /**
+     * The memory budget of the index, in distinct elements. Each of them costs a HashMap node and an int[3],
+     * about 64 bytes, so an index takes at most about 16MB besides its table. The index of a seq with more
+     * distinct elements is abandoned while it is being built, and not retried until the next in-place change.
+     */
+    static final int MAX_INDEX_ENTRIES = 1 << 18;
 
     SeqImpl() {
         this.list = new ArrayList<>();
     }
 
+    SeqImpl(int initialCapacity) {
+        this.list = new ArrayList<>(initialCapacity);
+    }
+
     SeqImpl(Collection<T> collection) {
         this.list = new ArrayList<>(collection);
     }
 
+    /**
+     * Wraps the given list as the backing storage without copying it.
+     */
+    SeqImpl(ArrayList<T> list, boolean frozen) {
+        this.list = list;
+        this.frozen = frozen;
+    }
+
     /**
      * Returns the element at index. A negative index counts from the end of self.
      *
@@ -56,7 +98,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public <R> MutableSeq<R> map(Function<T, R> func) {
         Objects.requireNonNull(func);
-        MutableSeq<R> result = new SeqImpl<>();
+        MutableSeq<R> result = new SeqImpl<>(size());
         this.forEach(i -> result.appendInPlace(func.apply(i)));
         return result;
     }
@@ -64,7 +106,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public <R> MutableSeq<R> map(BiFunction<T, Integer, R> func) {
         Objects.requireNonNull(func);
-        MutableSeq<R> result = new SeqImpl<>();
+        MutableSeq<R> result = new SeqImpl<>(size());
         this.forEach((s, i) -> result.appendInPlace(func.apply(s, i)));
         return result;
     }
@@ -103,9 +145,9 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> shuffle() {
-        List<T> newList = new ArrayList<>(list);
+        ArrayList<T> newList = new ArrayList<>(list);
         Collections.shuffle(newList);
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
@@ -122,9 +164,45 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> sort(Comparator<? super T> comparator) {
-        List<T> newList = new ArrayList<>(list);
-        Collections.sort(newList, comparator);
-        return new SeqImpl<>(newList);
+        ArrayList<T> newList = new ArrayList<>(list);
+        newList.sort(comparator);
+        return new SeqImpl<>(newList, false);
+    }
+
+    @Override
+    public MutableSeq<T> maxN(int k, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        return new SeqImpl<>(Selection.greatest(list, k, comparator), false);
+    }
+
+    @Override
+    public MutableSeq<T> minN(int k, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        return new SeqImpl<>(Selection.greatest(list, k, comparator.reversed()), false);
+    }
+
+    @Override
+    public <K extends Comparable<? super K>> MutableSeq<T> sortBy(Function<? super T, ? extends K> keyExtractor) {
+        return sortBy(keyExtractor, Comparator.naturalOrder());
+    }
+
+    @Override
+    public <K> MutableSeq<T> sortBy(Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+        Objects.requireNonNull(keyExtractor);
+        Objects.requireNonNull(keyComparator);
+        return new SeqImpl<>(Sorts.sortBy(list, keyExtractor, keyComparator), false);
+    }
+
+    @Override
+    public MutableSeq<T> sortByInt(ToIntFunction<? super T> keyExtractor) {
+        Objects.requireNonNull(keyExtractor);
+        return new SeqImpl<>(Sorts.sortByInt(list, keyExtractor), false);
+    }
+
+    @Override
+    public MutableSeq<T> sortByLong(ToLongFunction<? super T> keyExtractor) {
+        Objects.requireNonNull(keyExtractor);
+        return new SeqImpl<>(Sorts.sortByLong(list, keyExtractor), false);
     }
 
     @Override
@@ -134,9 +212,10 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> append(T value) {
-        List<T> newList = new ArrayList<>(list);
+        ArrayList<T> newList = new ArrayList<>(list.size() + 1);
+        newList.addAll(list);
         newList.add(value);
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
@@ -147,49 +226,50 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> append(Collection<? extends T> collection) {
-        List<T> newList = new ArrayList<>(list);
+        ArrayList<T> newList = new ArrayList<>(list.size() + collection.size());
+        newList.addAll(list);
         newList.addAll(collection);
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
     public MutableSeq<T> append(Seq<? extends T> seq) {
-        List<T> newList = new ArrayList<>(list);
-        seq.forEach((Consumer<T>) newList::add);
-        return new SeqImpl<>(newList);
+        ArrayList<T> newList = new ArrayList<>(list.size() + seq.size());
+        newList.addAll(list);
+        newList.addAll(elementsOf(seq));
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
     public MutableSeq<T> appendInPlace(T value) {
-        list.add(value);
+        mutableList().add(value);
         return this;
     }
 
     @Override
     @SafeVarargs
     final public MutableSeq<T> appendInPlace(T... values) {
-        Collections.addAll(list, values);
-        return this;
+        return appendInPlace(Arrays.asList(values));
     }
 
     @Override
     public MutableSeq<T> appendInPlace(Collection<? extends T> collection) {
-        list.addAll(collection);
+        mutableList().addAll(collection);
         return this;
     }
 
     @Override
     public MutableSeq<T> appendInPlace(Seq<? extends T> seq) {
-        list.addAll(seq.toArrayList());
+        mutableList().addAll(elementsOf(seq));
         return this;
     }
 
     @Override
     public MutableSeq<T> prepend(T value) {
-        List<T> newList = new ArrayList<>();
+        ArrayList<T> newList = new ArrayList<>(list.size() + 1);
         newList.add(value);
         newList.addAll(list);
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
@@ -201,23 +281,23 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> prepend(Collection<? extends T> collection) {
-        List<T> newList = new ArrayList<>();
+        ArrayList<T> newList = new ArrayList<>(list.size() + collection.size());
         newList.addAll(collection);
         newList.addAll(list);
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
     public MutableSeq<T> prepend(Seq<? extends T> seq) {
-        List<T> newList = new ArrayList<>();
-        seq.forEach((Consumer<T>) newList::add);
+        ArrayList<T> newList = new ArrayList<>(list.size() + seq.size());
+        newList.addAll(elementsOf(seq));
         newList.addAll(list);
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
     public MutableSeq<T> prependInPlace(T value) {
-        list.add(0, value);
+        mutableList().add(0, value);
         return this;
     }
 
@@ -229,13 +309,13 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> prependInPlace(Collection<? extends T> collection) {
-        list.addAll(0, collection);
+        mutableList().addAll(0, collection);
         return this;
     }
 
     @Override
     public MutableSeq<T> prependInPlace(Seq<? extends T> seq) {
-        list.addAll(0, seq.toArrayList());
+        mutableList().addAll(0, elementsOf(seq));
         return this;
     }
 
@@ -340,24 +420,24 @@ class SeqImpl<T> implements MutableSeq<T> {
     public MutableSeq<T> repeat(int times) {
         if (times <= 0)
             throw new IllegalArgumentException("times must be a positive number.");
-        List<T> newList = new ArrayList<>();
+        ArrayList<T> newList = new ArrayList<>(list.size() * times);
         while (times > 0) {
             newList.addAll(list);
             times--;
         }
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
     public MutableSeq<MutableSeq<T>> eachSlice(int n) {
         if (n <= 0)
             throw new IllegalArgumentException("n should be a positive number.");
-        List<MutableSeq<T>> newList = new ArrayList<>();
         int size = this.size();
+        ArrayList<MutableSeq<T>> newList = new ArrayList<>((size + n - 1) / n);
         for (int i = 0; i < size; i += n) {
             newList.add(subSeq(i, i + n > size ? size : i + n));
         }
-        return new SeqImpl<>(newList);
+        return new SeqImpl<>(newList, false);
     }
 
     @Override
@@ -367,15 +447,14 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> reverse() {
-        List<T> newList = new ArrayList<>();
-        for (int i = size() - 1; i >= 0; i--)
-            newList.add(this.get(i));
-        return new SeqImpl<>(newList);
+        ArrayList<T> newList = new ArrayList<>(list);
+        Collections.reverse(newList);
+        return new SeqImpl<>(newList, false);
     }
 
 
     private Seq<T> indexToSeq(int[] idxs) {
-        MutableSeq<T> result = new SeqImpl<>();
+        MutableSeq<T> result = new SeqImpl<>(idxs.length);
         for (int i : idxs) {
             result.appendInPlace(get(i));
         }
@@ -422,34 +501,160 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> clear() {
-        list.clear();
+        mutableList().clear();
         return this;
     }
 
     @Override
     public boolean contains(T t) {
-        return list.contains(t);
+        Index index = index();
+        return index != null ? index.positions.containsKey(t) : list.contains(t);
+    }
+
+    @Override
+    public int count(T element) {
+        Index index = index();
+        if (index == null) {
+            return MutableSeq.super.count(element);
+        }
+        int[] position = index.positions.get(element);
+        return position == null ? 0 : position[2];
     }
 
     @Override
     public MutableSeq<T> set(int i, T t) {
-        list.set(i, t);
+        mutableList().set(i, t);
         return this;
     }
 
     @Override
     public ArrayList<T> toArrayList() {
+        return new ArrayList<>(list);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return list.spliterator();
+    }
+
+    @Override
+    public Seq<T> freeze() {
+        frozen = true;
+        return this;
+    }
+
+    @Override
+    public Seq<T> snapshot() {
+        if (frozen) {
+            return this;
+        }
+        shared = true;
+        return frozenView(list);
+    }
+
+    /**
+     * Returns the backing list for an in-place change, copying it first if it is shared with a snapshot.
+     *
+     * @throws UnsupportedOperationException if this seq has been frozen
+     */
+    ArrayList<T> mutableList() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The seq has been frozen.");
+        }
+        if (shared) {
+            list = new ArrayList<>(list);
+            shared = false;
+        }
+        index = null;
+        probes = 0;
         return list;
     }
 
+    /**
+     * Returns the index for a probe, building it if this seq has been probed often enough,
+     * or null if the probe should scan the list.
+     */
+    private Index index() {
+        Index index = this.index;
+        if (index != null) {
+            return index;
+        }
+        int size = list.size();
+        if (size < MIN_INDEXED_SIZE || ++probes <= INDEX_PROBE_THRESHOLD) {
+            return null;
+        }
+        index = Index.build(list);
+        if (index == null) {
+            // over the budget: keep scanning until an in-place change resets the probes
+            probes = Integer.MIN_VALUE;
+        }
+        this.index = index;
+        return index;
+    }
+
+    /**
+     * Maps each distinct element to {first index, last index, count}.
+     */
+    private static final class Index {
+        private final Map<Object, int[]> positions;
+
+        private Index(Map<Object, int[]> positions) {
+            this.positions = positions;
+        }
+
+        /**
+         * @return the index of the list, or null if it has more than {@link #MAX_INDEX_ENTRIES} distinct elements
+         */
+        static Index build(List<?> list) {
+            // the number of distinct elements is unknown, so the table is not presized to the whole list
+            Map<Object, int[]> positions = new HashMap<>(Math.min(Joins.groupCapacityFor(list.size()), Joins.capacityFor(MAX_INDEX_ENTRIES)));
+            for (int i = 0; i < list.size(); i++) {
+                int[] position = positions.get(list.get(i));
+                if (position == null) {
+                    if (positions.size() == MAX_INDEX_ENTRIES) {
+                        return null;
+                    }
+                    positions.put(list.get(i), new int[]{i, i, 1});
+                } else {
+                    position[1] = i;
+                    position[2]++;
+                }
+            }
+            return new Index(positions);
+        }
+    }
+
+    /**
+     * Wraps the list into a frozen seq of the same kind as this seq, without copying it.
+     */
+    SeqImpl<T> frozenView(ArrayList<T> list) {
+        return new SeqImpl<>(list, true);
+    }
+
+    /**
+     * @return the current backing list, for reading only
+     */
+    ArrayList<T> elements() {
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Collection<E> elementsOf(Seq<E> seq) {
+        if (seq instanceof SeqImpl) {
+            return ((SeqImpl<E>) seq).list;
+        }
+        return seq.toArrayList();
+    }
+
     @Override
     public MutableSeq<T> shuffleInPlace() {
-        Collections.shuffle(list);
+        Collections.shuffle(mutableList());
         return this;
     }
 
     @Override
     public MutableSeq<T> distinctInPlace() {
+        ArrayList<T> list = mutableList();
         Collection<T> collection = new LinkedHashSet<>(list);
         list.clear();
         list.addAll(collection);
@@ -458,14 +663,46 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> sortInPlace(Comparator<? super T> comparator) {
-        Collections.sort(list, comparator);
+        Collections.sort(mutableList(), comparator);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MutableSeq<T> partialSortInPlace(int k, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator);
+        if (k < 0) {
+            throw new IllegalArgumentException("k should not be negative.");
+        }
+        T[] elements = (T[]) mutableList().toArray();
+        Selection.partialSort(elements, k, comparator);
+        setAll(elements);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MutableSeq<T> parallelSortInPlace(Comparator<? super T> comparator) {
+        T[] elements = (T[]) mutableList().toArray();
+        Arrays.parallelSort(elements, comparator);
+        setAll(elements);
         return this;
     }
 
+    /**
+     * Replaces all the elements with the rearranged ones, keeping the backing list.
+     */
+    private void setAll(T[] elements) {
+        ArrayList<T> list = mutableList();
+        for (int i = 0; i < elements.length; i++) {
+            list.set(i, elements[i]);
+        }
+    }
+
     @Override
     public MutableSeq<T> rejectInPlace(Predicate<T> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<T> each = list.iterator();
+        final Iterator<T> each = mutableList().iterator();
         while (each.hasNext()) {
             if (condition.test(each.next())) {
                 each.remove();
@@ -477,7 +714,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public MutableSeq<T> rejectInPlace(BiPredicate<T, Integer> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<T> each = list.iterator();
+        final Iterator<T> each = mutableList().iterator();
         int index = 0;
         while (each.hasNext()) {
             if (condition.test(each.next(), index)) {
@@ -491,7 +728,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public MutableSeq<T> rejectWhileInPlace(Predicate<T> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<T> each = list.iterator();
+        final Iterator<T> each = mutableList().iterator();
         while (each.hasNext() && condition.test(each.next())) {
             each.remove();
         }
@@ -501,7 +738,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public MutableSeq<T> rejectWhileInPlace(BiPredicate<T, Integer> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<T> each = list.iterator();
+        final Iterator<T> each = mutableList().iterator();
         for (int idx = 0; each.hasNext() && condition.test(each.next(), idx); idx++) {
             each.remove();
         }
@@ -511,7 +748,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public MutableSeq<T> filterInPlace(Predicate<T> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<T> each = list.iterator();
+        final Iterator<T> each = mutableList().iterator();
         while (each.hasNext()) {
             if (!condition.test(each.next())) {
                 each.remove();
@@ -523,7 +760,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public MutableSeq<T> filterInPlace(BiPredicate<T, Integer> condition) {
         Objects.requireNonNull(condition);
-        final Iterator<T> each = list.iterator();
+        final Iterator<T> each = mutableList().iterator();
         int index = 0;
         while (each.hasNext()) {
             if (!condition.test(each.next(), index)) {
@@ -539,9 +776,7 @@ class SeqImpl<T> implements MutableSeq<T> {
         Objects.requireNonNull(condition);
         int posToRemove = 0;
         for (; posToRemove < size() && condition.test(get(posToRemove)); posToRemove++);
-        for (int idx = size() - 1; idx >= posToRemove; idx--) {
-            list.remove(idx);
-        }
+        mutableList().subList(posToRemove, size()).clear();
         return this;
     }
 
@@ -550,9 +785,7 @@ class SeqImpl<T> implements MutableSeq<T> {
         Objects.requireNonNull(condition);
         int posToRemove = 0;
         for (; posToRemove < size() && condition.test(get(posToRemove), posToRemove); posToRemove++);
-        for (int idx = size() - 1; idx >= posToRemove; idx--) {
-            list.remove(idx);
-        }
+        mutableList().subList(posToRemove, size()).clear();
         return this;
     }
 
@@ -562,6 +795,7 @@ class SeqImpl<T> implements MutableSeq<T> {
             throw new IllegalArgumentException("times must be a positive number.");
         else if (times >= 2) {
             times--;
+            ArrayList<T> list = mutableList();
             Collection<T> copy = new ArrayList<>(list);
             while (times > 0) {
                 list.addAll(copy);
@@ -573,7 +807,7 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public MutableSeq<T> compactInPlace() {
-        list.removeIf(e -> e == null);
+        mutableList().removeIf(e -> e == null);
         return this;
     }
 
@@ -591,7 +825,7 @@ class SeqImpl<T> implements MutableSeq<T> {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof SeqImpl)) return false;
         SeqImpl<?> seq = (SeqImpl<?>) o;
         return Objects.equals(list, seq.list);
     }
@@ -608,12 +842,22 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public int indexOf(T t) {
-        return list.indexOf(t);
+        Index index = index();
+        if (index == null) {
+            return list.indexOf(t);
+        }
+        int[] position = index.positions.get(t);
+        return position == null ? -1 : position[0];
     }
 
     @Override
     public int lastIndexOf(T t) {
-        return list.lastIndexOf(t);
+        Index index = index();
+        if (index == null) {
+            return list.lastIndexOf(t);
+        }
+        int[] position = index.positions.get(t);
+        return position == null ? -1 : position[1];
     }
 
     @Override
@@ -693,7 +937,7 @@ class SeqImpl<T> implements MutableSeq<T> {
 
     @Override
     public Seq<T> rotate(int distance) {
-        MutableSeq<T> newSeq = new SeqImpl<>();
+        MutableSeq<T> newSeq = new SeqImpl<>(size());
         int size = size();
         if (size == 0) {
             return newSeq;
@@ -720,6 +964,7 @@ class SeqImpl<T> implements MutableSeq<T> {
             distance += size;
         }
 
+        ArrayList<T> list = mutableList();
         for (int cycleStart = 0, movedSteps = 0; movedSteps != size; cycleStart++) {
             T displaced = list.get(cycleStart);
             int i = cycleStart;
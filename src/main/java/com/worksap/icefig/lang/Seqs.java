@@ -16,29 +16,33 @@
 
 package com.worksap.icefig.lang;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.stream.Collector;
 
 /**
  * Factory class for construct Seq and MutableSeq
  */
 public class Seqs {
+    private static final Seq<?> EMPTY = new SeqImpl<>(0).freeze();
 
     /**
-     * Create an empty Seq
+     * Create an empty Seq. The returned seq is immutable, and shared among all callers.
      */
+    @SuppressWarnings("unchecked")
     public static <T> Seq<T> newSeq() {
-        return new SeqImpl<>();
+        return (Seq<T>) EMPTY;
     }
 
     /**
      * Create an Seq with the single value
      */
     public static <T> Seq<T> newSeq(T value) {
-        Collection<T> collection = new ArrayList<>();
-        collection.add(value);
-        return new SeqImpl<>(collection);
+        return new SeqImpl<T>(1).appendInPlace(value);
     }
 
     /**
@@ -67,9 +71,7 @@ public class Seqs {
      * Create an MutableSeq with the single value
      */
     public static <T> MutableSeq<T> newMutableSeq(T value) {
-        Collection<T> collection = new ArrayList<>();
-        collection.add(value);
-        return new SeqImpl<>(collection);
+        return new SeqImpl<T>(1).appendInPlace(value);
     }
 
     /**
@@ -86,4 +88,174 @@ public class Seqs {
     public static <T> MutableSeq<T> newMutableSeq(Collection<T> values) {
         return new SeqImpl<>(values);
     }
+
+    /**
+     * Create a builder to construct a Seq with in-place appends
+     */
+    public static <T> SeqBuilder<T> newSeqBuilder() {
+        return new SeqBuilder<>();
+    }
+
+    /**
+     * Create a builder to construct a Seq with in-place appends, presized for the expected number of elements
+     *
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public static <T> SeqBuilder<T> newSeqBuilder(int expectedSize) {
+        return new SeqBuilder<>(expectedSize);
+    }
+
+    /**
+     * Create a SortedSeq with the values sorted by the comparator. A null comparator means the natural ordering.
+     */
+    public static <T> SortedSeq<T> newSortedSeq(Comparator<? super T> comparator, Collection<T> values) {
+        return SortedSeqImpl.sortedCopy(values, comparator);
+    }
+
+    /**
+     * Create a SortedSeq with the values sorted by the comparator. A null comparator means the natural ordering.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> SortedSeq<T> newSortedSeq(Comparator<? super T> comparator, T... values) {
+        return SortedSeqImpl.sortedCopy(Arrays.asList(values), comparator);
+    }
+
+    /**
+     * Create a MutableSortedSeq with the values sorted by the comparator. A null comparator means the natural ordering.
+     */
+    public static <T> MutableSortedSeq<T> newMutableSortedSeq(Comparator<? super T> comparator, Collection<T> values) {
+        return SortedSeqImpl.sortedCopy(values, comparator);
+    }
+
+    /**
+     * Create a MutableSortedSeq with the values sorted by the comparator. A null comparator means the natural ordering.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> MutableSortedSeq<T> newMutableSortedSeq(Comparator<? super T> comparator, T... values) {
+        return SortedSeqImpl.sortedCopy(Arrays.asList(values), comparator);
+    }
+
+    /**
+     * Merges k sorted seqs into one in O(n log k) time, with a heap of the heads of the seqs.
+     * Equal elements keep the order of the seqs they come from.
+     *
+     * @throws NullPointerException     if seqs is null
+     * @throws IllegalArgumentException if seqs is empty, or the seqs are not sorted by the same comparator
+     */
+    public static <T> SortedSeq<T> mergeSorted(Collection<? extends SortedSeq<T>> seqs) {
+        return SortedSeqImpl.mergeAll(new ArrayList<>(seqs));
+    }
+
+    /**
+     * Merges k sorted seqs into one in O(n log k) time.
+     *
+     * @see #mergeSorted(Collection)
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <T> SortedSeq<T> mergeSorted(SortedSeq<T>... seqs) {
+        return SortedSeqImpl.mergeAll(Arrays.asList(seqs));
+    }
+
+    /**
+     * Create an external merge sort, which sorts {@link ExternalSort#DEFAULT_RUN_SIZE} elements in memory at a time
+     * and spills the sorted runs to the default temp directory through the codec.
+     *
+     * @throws NullPointerException if comparator or codec is null
+     */
+    public static <T> ExternalSort<T> newExternalSort(Comparator<? super T> comparator, Codec<T> codec) {
+        return new ExternalSort<>(comparator, codec, ExternalSort.DEFAULT_RUN_SIZE, null);
+    }
+
+    /**
+     * Create an external merge sort.
+     *
+     * @param runSize       the number of elements sorted in memory at a time, which is the memory budget of the sort
+     * @param tempDirectory the directory of the temp files of the sorted runs. A {@code null} value indicates the default temp directory.
+     * @throws NullPointerException     if comparator or codec is null
+     * @throws IllegalArgumentException if runSize is not positive
+     */
+    public static <T> ExternalSort<T> newExternalSort(Comparator<? super T> comparator, Codec<T> codec, int runSize, Path tempDirectory) {
+        return new ExternalSort<>(comparator, codec, runSize, tempDirectory);
+    }
+
+    /**
+     * Create an append-only seq which spills every {@link SpillSeq#DEFAULT_SEGMENT_SIZE} elements
+     * to a memory-mapped file in the default temp directory through the codec.
+     *
+     * @throws NullPointerException if codec is null
+     */
+    public static <T> SpillSeq<T> newSpillSeq(Codec<T> codec) {
+        return new SpillSeq<>(codec, SpillSeq.DEFAULT_SEGMENT_SIZE, null);
+    }
+
+    /**
+     * Create an append-only seq which spills its elements to memory-mapped files through the codec.
+     *
+     * @param segmentSize   the number of elements kept in memory before they are spilled
+     * @param tempDirectory the directory of the spilled files. A {@code null} value indicates the default temp directory.
+     * @throws NullPointerException     if codec is null
+     * @throws IllegalArgumentException if segmentSize is not positive
+     */
+    public static <T> SpillSeq<T> newSpillSeq(Codec<T> codec, int segmentSize, Path tempDirectory) {
+        return new SpillSeq<>(codec, segmentSize, tempDirectory);
+    }
+
+    /**
+     * Open a read-only seq of the fixed-width records in the file, by mapping the file into memory.
+     *
+     * @param recordSize the number of bytes of a record
+     * @param decoder    the decoder of a record
+     * @throws NullPointerException     if file or decoder is null
+     * @throws IllegalArgumentException if recordSize is not positive, or the file size is not a multiple of it
+     * @throws UncheckedIOException     if the file cannot be mapped
+     */
+    public static <T> MappedSeq<T> openMappedSeq(Path file, int recordSize, MappedSeq.Decoder<T> decoder) {
+        return MappedSeq.open(file, recordSize, decoder, MappedSeq.MAX_CHUNK_SIZE);
+    }
+
+    /**
+     * Create an empty BigLongSeq, which stores its values off the heap.
+     */
+    public static BigLongSeq newBigLongSeq() {
+        return new BigLongSeq(BigLongSeq.DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Create an IntSeq with the values. The values are copied.
+     */
+    public static IntSeq newIntSeq(int... values) {
+        return new IntSeq(values.clone());
+    }
+
+    /**
+     * Create a LongSeq with the values. The values are copied.
+     */
+    public static LongSeq newLongSeq(long... values) {
+        return new LongSeq(values.clone());
+    }
+
+    /**
+     * Returns a {@link Collector} that accumulates the input elements into a new Seq, in encounter order.
+     * Partial results of a parallel stream are combined by a single bulk append.
+     */
+    public static <T> Collector<T, ?, Seq<T>> toSeq() {
+        return Collector.of(SeqImpl<T>::new, SeqImpl::appendInPlace, Seqs::combine, seq -> seq);
+    }
+
+    /**
+     * Returns a {@link Collector} that accumulates the input elements into a new MutableSeq, in encounter order.
+     *
+     * @see #toSeq()
+     */
+    public static <T> Collector<T, ?, MutableSeq<T>> toMutableSeq() {
+        return Collector.of(SeqImpl<T>::new, SeqImpl::appendInPlace, Seqs::combine, seq -> seq);
+    }
+
+    private static <T> SeqImpl<T> combine(SeqImpl<T> left, SeqImpl<T> right) {
+        left.appendInPlace(right);
+        return left;
+    }
 }
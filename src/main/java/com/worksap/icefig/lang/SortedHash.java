@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * A {@link Hash} whose keys are kept sorted, either by their natural ordering or by a comparator.
+ * <p>
+ * {@link #keys()}, {@link #values()} and {@link #entrySeq()} are in ascending order of keys without a sort step,
+ * and the key lookups and range queries below take O(log n) time.
+ * </p>
+ */
+public interface SortedHash<K, V> extends Hash<K, V> {
+    @Override
+    SortedHash<K, V> put(K k, V v);
+
+    @Override
+    SortedHash<K, V> putIfAbsent(K k, V v);
+
+    @Override
+    SortedHash<K, V> filter(BiPredicate<K, V> condition);
+
+    @Override
+    SortedHash<K, V> reject(BiPredicate<K, V> condition);
+
+    @Override
+    SortedHash<K, V> merge(Hash<? extends K, ? extends V> another);
+
+    @Override
+    SortedHash<K, V> remove(K k);
+
+    @Override
+    SortedHash<K, V> remove(K k, V v);
+
+    @Override
+    SortedHash<K, V> replace(K k, V v);
+
+    @Override
+    SortedHash<K, V> replace(K k, V oldValue, V newValue);
+
+    @Override
+    SortedHash<K, V> replaceAll(BiFunction<? super K, ? super V, ? extends V> function);
+
+    /**
+     * @return the comparator used to order the keys, or null if the keys are in their natural ordering
+     */
+    Comparator<? super K> comparator();
+
+    /**
+     * @return the lowest key of this hash
+     * @throws NoSuchElementException if this hash is empty
+     */
+    K firstKey();
+
+    /**
+     * @return the highest key of this hash
+     * @throws NoSuchElementException if this hash is empty
+     */
+    K lastKey();
+
+    /**
+     * @return the greatest key less than or equal to the given key, or null if there is no such key
+     */
+    K floorKey(K key);
+
+    /**
+     * @return the least key greater than or equal to the given key, or null if there is no such key
+     */
+    K ceilingKey(K key);
+
+    /**
+     * @return the greatest key strictly less than the given key, or null if there is no such key
+     */
+    K lowerKey(K key);
+
+    /**
+     * @return the least key strictly greater than the given key, or null if there is no such key
+     */
+    K higherKey(K key);
+
+    /**
+     * Returns a new hash with the mappings whose keys range from fromKey, inclusive, to toKey, exclusive.
+     * It takes O(log n + m) time, where m is the number of the mappings in the range.
+     *
+     * @throws IllegalArgumentException if fromKey is greater than toKey
+     */
+    SortedHash<K, V> subHash(K fromKey, K toKey);
+
+    /**
+     * Returns a new hash with the mappings whose keys are strictly less than toKey.
+     *
+     * @see #subHash(Object, Object)
+     */
+    SortedHash<K, V> headHash(K toKey);
+
+    /**
+     * Returns a new hash with the mappings whose keys are greater than or equal to fromKey.
+     *
+     * @see #subHash(Object, Object)
+     */
+    SortedHash<K, V> tailHash(K fromKey);
+}
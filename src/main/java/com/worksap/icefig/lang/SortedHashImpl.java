@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+
+/**
+ * The implementation of MutableSortedHash, backed by a red-black tree ({@link TreeMap}).
+ */
+class SortedHashImpl<K, V> extends HashImpl<K, V> implements MutableSortedHash<K, V> {
+    SortedHashImpl(Comparator<? super K> comparator) {
+        super(new TreeMap<>(comparator));
+    }
+
+    SortedHashImpl(Comparator<? super K> comparator, Map<? extends K, ? extends V> m) {
+        this(comparator);
+        // TreeMap builds itself in linear time from a sorted map of the same comparator
+        tree().putAll(m);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected <A, B> HashImpl<A, B> newInstance(Map<? extends A, ? extends B> m) {
+        return new SortedHashImpl<>((Comparator<? super A>) comparator(), m);
+    }
+
+    /**
+     * Values may not be comparable, so the inverted hash is not sorted.
+     */
+    @Override
+    public MutableHash<V, K> invert() {
+        MutableHash<V, K> newHash = Hashes.newMutableHash();
+        map().forEach((k, v) -> newHash.putInPlace(v, k));
+        return newHash;
+    }
+
+    @Override
+    public MutableSortedHash<K, V> put(K k, V v) {
+        return (MutableSortedHash<K, V>) super.put(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> putIfAbsent(K k, V v) {
+        return (MutableSortedHash<K, V>) super.putIfAbsent(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> filter(BiPredicate<K, V> condition) {
+        return (MutableSortedHash<K, V>) super.filter(condition);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> reject(BiPredicate<K, V> condition) {
+        return (MutableSortedHash<K, V>) super.reject(condition);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> merge(Hash<? extends K, ? extends V> another) {
+        return (MutableSortedHash<K, V>) super.merge(another);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> remove(K k) {
+        return (MutableSortedHash<K, V>) super.remove(k);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> remove(K k, V v) {
+        return (MutableSortedHash<K, V>) super.remove(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> replace(K k, V v) {
+        return (MutableSortedHash<K, V>) super.replace(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> replace(K k, V oldValue, V newValue) {
+        return (MutableSortedHash<K, V>) super.replace(k, oldValue, newValue);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        return (MutableSortedHash<K, V>) super.replaceAll(function);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> putInPlace(K k, V v) {
+        return (MutableSortedHash<K, V>) super.putInPlace(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> putIfAbsentInPlace(K k, V v) {
+        return (MutableSortedHash<K, V>) super.putIfAbsentInPlace(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> removeInPlace(K k) {
+        return (MutableSortedHash<K, V>) super.removeInPlace(k);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> removeInPlace(K k, V v) {
+        return (MutableSortedHash<K, V>) super.removeInPlace(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> filterInPlace(BiPredicate<K, V> condition) {
+        return (MutableSortedHash<K, V>) super.filterInPlace(condition);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> rejectInPlace(BiPredicate<K, V> condition) {
+        return (MutableSortedHash<K, V>) super.rejectInPlace(condition);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> mergeInPlace(Hash<? extends K, ? extends V> another) {
+        return (MutableSortedHash<K, V>) super.mergeInPlace(another);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> clear() {
+        return (MutableSortedHash<K, V>) super.clear();
+    }
+
+    @Override
+    public MutableSortedHash<K, V> replaceInPlace(K k, V v) {
+        return (MutableSortedHash<K, V>) super.replaceInPlace(k, v);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> replaceInPlace(K k, V oldValue, V newValue) {
+        return (MutableSortedHash<K, V>) super.replaceInPlace(k, oldValue, newValue);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> replaceAllInPlace(BiFunction<? super K, ? super V, ? extends V> function) {
+        return (MutableSortedHash<K, V>) super.replaceAllInPlace(function);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> computeInPlace(K k, BiFunction<? super K, ? super V, ? extends V> function) {
+        return (MutableSortedHash<K, V>) super.computeInPlace(k, function);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> mergeInPlace(K k, V v, BiFunction<? super V, ? super V, ? extends V> function) {
+        return (MutableSortedHash<K, V>) super.mergeInPlace(k, v, function);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> incrementInPlace(K k, V delta) {
+        return (MutableSortedHash<K, V>) super.incrementInPlace(k, delta);
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return tree().comparator();
+    }
+
+    @Override
+    public K firstKey() {
+        return tree().firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return tree().lastKey();
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return tree().floorKey(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return tree().ceilingKey(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return tree().lowerKey(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return tree().higherKey(key);
+    }
+
+    @Override
+    public MutableSortedHash<K, V> subHash(K fromKey, K toKey) {
+        return new SortedHashImpl<>(comparator(), tree().subMap(fromKey, toKey));
+    }
+
+    @Override
+    public MutableSortedHash<K, V> headHash(K toKey) {
+        return new SortedHashImpl<>(comparator(), tree().headMap(toKey));
+    }
+
+    @Override
+    public MutableSortedHash<K, V> tailHash(K fromKey) {
+        return new SortedHashImpl<>(comparator(), tree().tailMap(fromKey));
+    }
+
+    @Override
+    public SortedHash<K, V> freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    public SortedHash<K, V> snapshot() {
+        return (SortedHash<K, V>) super.snapshot();
+    }
+
+    private TreeMap<K, V> tree() {
+        return (TreeMap<K, V>) map();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Seq} whose elements are sorted by its comparator.
+ * <p>
+ * Lookups find the range of the elements equal to the argument by the comparator with binary searches,
+ * then match the elements in the range by equals, so they keep the contract of {@link Seq}.
+ * Set operations with another SortedSeq of the same comparator are done by linear merge scans, without hashing,
+ * and regard elements as equal when the comparator returns 0.
+ * </p>
+ *
+ * @see Seqs#newSortedSeq(Comparator, Collection)
+ */
+public interface SortedSeq<T> extends Seq<T> {
+    /**
+     * @return the comparator by which the elements are sorted
+     */
+    Comparator<? super T> comparator();
+
+    /**
+     * Check whether this seq contains an element equal to t, searching only the elements equal to t by the comparator.
+     * It takes O(log n) time plus the length of that range.
+     */
+    @Override
+    boolean contains(T t);
+
+    /**
+     * Returns the index of the first element equal to t, or -1 if there is none,
+     * searching only the elements equal to t by the comparator.
+     */
+    @Override
+    int indexOf(T t);
+
+    /**
+     * Returns the index of the last element equal to t, or -1 if there is none,
+     * searching only the elements equal to t by the comparator.
+     */
+    @Override
+    int lastIndexOf(T t);
+
+    /**
+     * Counts the elements equal to the element, searching only the elements equal to it by the comparator.
+     */
+    @Override
+    int count(T element);
+
+    /**
+     * Returns the index of the first element which is not less than t, or the size of this seq if there is none.
+     * It is the first index at which t can be inserted keeping this seq sorted.
+     */
+    int lowerBound(T t);
+
+    /**
+     * Returns the index of the first element which is greater than t, or the size of this seq if there is none.
+     * It is the last index at which t can be inserted keeping this seq sorted.
+     */
+    int upperBound(T t);
+
+    @Override
+    SortedSeq<T> subSeq(int fromIndex, int toIndex);
+
+    @Override
+    SortedSeq<T> distinct();
+
+    @Override
+    SortedSeq<T> filter(Predicate<T> condition);
+
+    @Override
+    SortedSeq<T> filter(BiPredicate<T, Integer> condition);
+
+    @Override
+    SortedSeq<T> filterWhile(Predicate<T> condition);
+
+    @Override
+    SortedSeq<T> filterWhile(BiPredicate<T, Integer> condition);
+
+    @Override
+    SortedSeq<T> reject(Predicate<T> condition);
+
+    @Override
+    SortedSeq<T> reject(BiPredicate<T, Integer> condition);
+
+    @Override
+    SortedSeq<T> rejectWhile(Predicate<T> condition);
+
+    @Override
+    SortedSeq<T> rejectWhile(BiPredicate<T, Integer> condition);
+
+    /**
+     * Computes the multiset intersection between this seq and another seq, which is also sorted.
+     * <p>
+     * If seq is a SortedSeq of the same comparator, it takes O(n + m) time by a merge scan,
+     * otherwise it falls back to {@link Seq#intersect(Seq)}.
+     * </p>
+     *
+     * @throws NullPointerException if the parameter seq is null
+     */
+    @Override
+    SortedSeq<T> intersect(Seq<T> seq);
+
+    /**
+     * Computes the multiset difference between this seq and another seq, which is also sorted.
+     * <p>
+     * If seq is a SortedSeq of the same comparator, it takes O(n + m) time by a merge scan,
+     * otherwise it falls back to {@link Seq#difference(Seq)}.
+     * </p>
+     *
+     * @throws NullPointerException if the parameter seq is null
+     */
+    @Override
+    SortedSeq<T> difference(Seq<T> seq);
+
+    /**
+     * Computes the multiset union of this seq and another seq by a merge scan.
+     * If an element value x appears n times in this seq and m times in that, it appears max(n, m) times in the result.
+     *
+     * @throws NullPointerException     if the parameter seq is null
+     * @throws IllegalArgumentException if seq is not sorted by the same comparator
+     */
+    SortedSeq<T> union(SortedSeq<T> seq);
+
+    /**
+     * Merges this seq and another seq into a new sorted seq with all the elements of both, by a merge scan.
+     * Equal elements of this seq come before those of that.
+     *
+     * @throws NullPointerException     if the parameter seq is null
+     * @throws IllegalArgumentException if seq is not sorted by the same comparator
+     * @see Seqs#mergeSorted(Collection)
+     */
+    SortedSeq<T> merge(SortedSeq<T> seq);
+
+    /**
+     * Joins this seq with another seq by a merge scan (sort-merge join), pairing the elements which are equal by the comparator.
+     * The pairs are in the order of this seq, and then of that.
+     *
+     * @param seq      the seq to join with
+     * @param combiner the function to combine a pair of equal elements
+     * @return the new seq of the combined pairs
+     * @throws NullPointerException     if the parameter seq or combiner is null
+     * @throws IllegalArgumentException if seq is not sorted by the same comparator
+     */
+    <R> Seq<R> join(SortedSeq<T> seq, BiFunction<? super T, ? super T, ? extends R> combiner);
+}
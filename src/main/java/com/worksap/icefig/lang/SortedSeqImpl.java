@@ -0,0 +1,571 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * The implementation of SortedSeq, whose backing list is kept sorted by the comparator.
+ */
+class SortedSeqImpl<T> extends SeqImpl<T> implements MutableSortedSeq<T> {
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Wraps the sorted list as the backing storage without copying it.
+     */
+    private SortedSeqImpl(ArrayList<T> sorted, Comparator<? super T> comparator, boolean frozen) {
+        super(sorted, frozen);
+        this.comparator = comparator;
+    }
+
+    private SortedSeqImpl(ArrayList<T> sorted, Comparator<? super T> comparator) {
+        this(sorted, comparator, false);
+    }
+
+    /**
+     * Creates a sorted copy of the values. A null comparator means the natural ordering.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> SortedSeqImpl<T> sortedCopy(Collection<? extends T> values, Comparator<? super T> comparator) {
+        Comparator<? super T> order = comparator == null ? (Comparator<? super T>) Comparator.naturalOrder() : comparator;
+        ArrayList<T> sorted = new ArrayList<>(values);
+        sorted.sort(order);
+        return new SortedSeqImpl<>(sorted, order);
+    }
+
+    /**
+     * Merges the sorted seqs with a heap of their heads in O(n log k) time.
+     * Equal elements keep the order of the seqs they come from.
+     */
+    static <T> SortedSeqImpl<T> mergeAll(List<? extends SortedSeq<T>> seqs) {
+        if (seqs.isEmpty()) {
+            throw new IllegalArgumentException("seqs should not be empty.");
+        }
+        Comparator<? super T> comparator = seqs.get(0).comparator();
+        List<List<? extends T>> lists = new ArrayList<>(seqs.size());
+        int total = 0;
+        for (SortedSeq<T> seq : seqs) {
+            requireSameOrder(comparator, seq);
+            lists.add(elementsOf(seq));
+            total += seq.size();
+        }
+
+        // each cursor is {index of the seq, position in the seq}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(lists.size(), (a, b) -> {
+            int cmp = comparator.compare(lists.get(a[0]).get(a[1]), lists.get(b[0]).get(b[1]));
+            return cmp != 0 ? cmp : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        ArrayList<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<? extends T> list = lists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return new SortedSeqImpl<>(merged, comparator);
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public boolean contains(T t) {
+        return indexOf(t) >= 0;
+    }
+
+    @Override
+    public int indexOf(T t) {
+        List<T> list = elements();
+        for (int i = lowerBound(t), end = upperBound(t); i < end; i++) {
+            if (Objects.equals(list.get(i), t)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(T t) {
+        List<T> list = elements();
+        for (int i = upperBound(t) - 1, start = lowerBound(t); i >= start; i--) {
+            if (Objects.equals(list.get(i), t)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int count(T element) {
+        List<T> list = elements();
+        int count = 0;
+        for (int i = lowerBound(element), end = upperBound(element); i < end; i++) {
+            if (Objects.equals(list.get(i), element)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int lowerBound(T t) {
+        List<T> list = elements();
+        int low = 0, high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(list.get(mid), t) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public int upperBound(T t) {
+        List<T> list = elements();
+        int low = 0, high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(list.get(mid), t) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public MutableSortedSeq<T> insertInPlace(T value) {
+        int index = upperBound(value);
+        mutableList().add(index, value);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> insertInPlace(Collection<? extends T> values) {
+        Objects.requireNonNull(values);
+        ArrayList<T> list = mutableList();
+        list.addAll(values);
+        // the list consists of two sorted runs after sorting the appended part, which the merge sort detects
+        list.subList(list.size() - values.size(), list.size()).sort(comparator);
+        list.sort(comparator);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> sortInPlace(Comparator<? super T> comparator) {
+        if (!this.comparator.equals(comparator == null ? Comparator.naturalOrder() : comparator)) {
+            throw new UnsupportedOperationException("A SortedSeq can not be sorted by another comparator.");
+        }
+        mutableList();
+        return this;
+    }
+
+    @Override
+    public SortedSeq<T> intersect(Seq<T> seq) {
+        Objects.requireNonNull(seq);
+        if (!isSameOrder(seq)) {
+            return adopt(super.intersect(seq));
+        }
+        List<T> a = elements();
+        List<? extends T> b = elementsOf((SortedSeq<T>) seq);
+        ArrayList<T> result = new ArrayList<>(Math.min(a.size(), b.size()));
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            int cmp = comparator.compare(a.get(i), b.get(j));
+            if (cmp < 0) {
+                i++;
+            } else if (cmp > 0) {
+                j++;
+            } else {
+                result.add(a.get(i++));
+                j++;
+            }
+        }
+        return new SortedSeqImpl<>(result, comparator);
+    }
+
+    @Override
+    public SortedSeq<T> difference(Seq<T> seq) {
+        Objects.requireNonNull(seq);
+        if (!isSameOrder(seq)) {
+            return adopt(super.difference(seq));
+        }
+        List<T> a = elements();
+        List<? extends T> b = elementsOf((SortedSeq<T>) seq);
+        ArrayList<T> result = new ArrayList<>(a.size());
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            int cmp = comparator.compare(a.get(i), b.get(j));
+            if (cmp < 0) {
+                result.add(a.get(i++));
+            } else if (cmp > 0) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        result.addAll(a.subList(i, a.size()));
+        return new SortedSeqImpl<>(result, comparator);
+    }
+
+    @Override
+    public SortedSeq<T> union(SortedSeq<T> seq) {
+        Objects.requireNonNull(seq);
+        requireSameOrder(comparator, seq);
+        List<T> a = elements();
+        List<? extends T> b = elementsOf(seq);
+        ArrayList<T> result = new ArrayList<>(a.size() + b.size());
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            int cmp = comparator.compare(a.get(i), b.get(j));
+            if (cmp < 0) {
+                result.add(a.get(i++));
+            } else if (cmp > 0) {
+                result.add(b.get(j++));
+            } else {
+                result.add(a.get(i++));
+                j++;
+            }
+        }
+        result.addAll(a.subList(i, a.size()));
+        result.addAll(b.subList(j, b.size()));
+        return new SortedSeqImpl<>(result, comparator);
+    }
+
+    @Override
+    public SortedSeq<T> merge(SortedSeq<T> seq) {
+        Objects.requireNonNull(seq);
+        requireSameOrder(comparator, seq);
+        List<T> a = elements();
+        List<? extends T> b = elementsOf(seq);
+        ArrayList<T> result = new ArrayList<>(a.size() + b.size());
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            if (comparator.compare(a.get(i), b.get(j)) <= 0) {
+                result.add(a.get(i++));
+            } else {
+                result.add(b.get(j++));
+            }
+        }
+        result.addAll(a.subList(i, a.size()));
+        result.addAll(b.subList(j, b.size()));
+        return new SortedSeqImpl<>(result, comparator);
+    }
+
+    @Override
+    public <R> Seq<R> join(SortedSeq<T> seq, BiFunction<? super T, ? super T, ? extends R> combiner) {
+        Objects.requireNonNull(seq);
+        Objects.requireNonNull(combiner);
+        requireSameOrder(comparator, seq);
+        List<T> a = elements();
+        List<? extends T> b = elementsOf(seq);
+        MutableSeq<R> result = new SeqImpl<>();
+        int i = 0, j = 0;
+        while (i < a.size() && j < b.size()) {
+            int cmp = comparator.compare(a.get(i), b.get(j));
+            if (cmp < 0) {
+                i++;
+            } else if (cmp > 0) {
+                j++;
+            } else {
+                // pair the run of equal elements in this seq with the run in that
+                int runEnd = j + 1;
+                while (runEnd < b.size() && comparator.compare(a.get(i), b.get(runEnd)) == 0) {
+                    runEnd++;
+                }
+                T key = a.get(i);
+                while (i < a.size() && comparator.compare(key, a.get(i)) == 0) {
+                    for (int k = j; k < runEnd; k++) {
+                        result.appendInPlace(combiner.apply(a.get(i), b.get(k)));
+                    }
+                    i++;
+                }
+                j = runEnd;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public MutableSortedSeq<T> partialSortInPlace(int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k should not be negative.");
+        }
+        return sortInPlace(comparator);
+    }
+
+    @Override
+    public MutableSortedSeq<T> parallelSortInPlace(Comparator<? super T> comparator) {
+        return sortInPlace(comparator);
+    }
+
+    @Override
+    public T nthElement(int n, Comparator<? super T> comparator) {
+        if (!this.comparator.equals(comparator) || n < 0 || n >= size()) {
+            return super.nthElement(n, comparator);
+        }
+        return get(n);
+    }
+
+    @Override
+    public MutableSeq<T> minN(int k, Comparator<? super T> comparator) {
+        if (!this.comparator.equals(comparator) || k < 0) {
+            return super.minN(k, comparator);
+        }
+        return new SeqImpl<>(elements().subList(0, Math.min(k, size())));
+    }
+
+    @Override
+    public MutableSortedSeq<T> subSeq(int fromIndex, int toIndex) {
+        return adopt(super.subSeq(fromIndex, toIndex));
+    }
+
+    @Override
+    public MutableSortedSeq<T> distinct() {
+        return adopt(super.distinct());
+    }
+
+    @Override
+    public MutableSortedSeq<T> filter(Predicate<T> condition) {
+        return adopt(super.filter(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> filter(BiPredicate<T, Integer> condition) {
+        return adopt(super.filter(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> filterWhile(Predicate<T> condition) {
+        return adopt(super.filterWhile(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> filterWhile(BiPredicate<T, Integer> condition) {
+        return adopt(super.filterWhile(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> reject(Predicate<T> condition) {
+        return adopt(super.reject(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> reject(BiPredicate<T, Integer> condition) {
+        return adopt(super.reject(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> rejectWhile(Predicate<T> condition) {
+        return adopt(super.rejectWhile(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> rejectWhile(BiPredicate<T, Integer> condition) {
+        return adopt(super.rejectWhile(condition));
+    }
+
+    @Override
+    public MutableSortedSeq<T> clear() {
+        super.clear();
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> distinctInPlace() {
+        super.distinctInPlace();
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> compactInPlace() {
+        super.compactInPlace();
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> filterInPlace(Predicate<T> condition) {
+        super.filterInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> filterInPlace(BiPredicate<T, Integer> condition) {
+        super.filterInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> filterWhileInPlace(Predicate<T> condition) {
+        super.filterWhileInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> filterWhileInPlace(BiPredicate<T, Integer> condition) {
+        super.filterWhileInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> rejectInPlace(Predicate<T> condition) {
+        super.rejectInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> rejectInPlace(BiPredicate<T, Integer> condition) {
+        super.rejectInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> rejectWhileInPlace(Predicate<T> condition) {
+        super.rejectWhileInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public MutableSortedSeq<T> rejectWhileInPlace(BiPredicate<T, Integer> condition) {
+        super.rejectWhileInPlace(condition);
+        return this;
+    }
+
+    @Override
+    public SortedSeq<T> freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    public SortedSeq<T> snapshot() {
+        return (SortedSeq<T>) super.snapshot();
+    }
+
+    @Override
+    public MutableSeq<T> appendInPlace(T value) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> appendInPlace(Collection<? extends T> collection) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> appendInPlace(Seq<? extends T> seq) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> prependInPlace(T value) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> prependInPlace(Collection<? extends T> collection) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> prependInPlace(Seq<? extends T> seq) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> set(int i, T t) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> shuffleInPlace() {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> reverseInPlace() {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> repeatInPlace(int times) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> swapInPlace(int i, int j) {
+        throw orderBroken();
+    }
+
+    @Override
+    public MutableSeq<T> rotateInPlace(int distance) {
+        throw orderBroken();
+    }
+
+    private static UnsupportedOperationException orderBroken() {
+        return new UnsupportedOperationException("The method would break the order of a SortedSeq, use insertInPlace instead.");
+    }
+
+    private boolean isSameOrder(Seq<T> seq) {
+        return seq instanceof SortedSeq && comparator.equals(((SortedSeq<T>) seq).comparator());
+    }
+
+    private static <T> void requireSameOrder(Comparator<? super T> comparator, SortedSeq<T> seq) {
+        if (!comparator.equals(seq.comparator())) {
+            throw new IllegalArgumentException("The seqs should be sorted by the same comparator.");
+        }
+    }
+
+    /**
+     * Adopts the elements of a new subsequence of this seq, which is therefore sorted.
+     */
+    private MutableSortedSeq<T> adopt(Seq<T> subsequence) {
+        ArrayList<T> list = subsequence instanceof SeqImpl ? ((SeqImpl<T>) subsequence).elements() : subsequence.toArrayList();
+        return new SortedSeqImpl<>(list, comparator);
+    }
+
+    @Override
+    SeqImpl<T> frozenView(ArrayList<T> list) {
+        return new SortedSeqImpl<>(list, comparator, true);
+    }
+
+    private static <E> List<? extends E> elementsOf(SortedSeq<E> seq) {
+        return seq instanceof SeqImpl ? ((SeqImpl<E>) seq).elements() : seq.toArrayList();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorting of seqs by keys computed once per element, used by the sortBy methods of {@link Seq}.
+ * All of the sorts are stable.
+ */
+final class Sorts {
+    /**
+     * Below this size, a comparison sort of the keys is faster than the passes of a radix sort.
+     */
+    private static final int RADIX_THRESHOLD = 64;
+
+    private Sorts() {
+
+    }
+
+    /**
+     * Sorts by the keys, computing the key of each element once (Schwartzian transform).
+     */
+    @SuppressWarnings("unchecked")
+    static <T, K> ArrayList<T> sortBy(List<T> list, Function<? super T, ? extends K> keyExtractor, Comparator<? super K> keyComparator) {
+        int size = list.size();
+        Object[][] pairs = new Object[size][];
+        for (int i = 0; i < size; i++) {
+            T t = list.get(i);
+            pairs[i] = new Object[]{keyExtractor.apply(t), t};
+        }
+        Arrays.sort(pairs, (a, b) -> keyComparator.compare((K) a[0], (K) b[0]));
+        ArrayList<T> result = new ArrayList<>(size);
+        for (Object[] pair : pairs) {
+            result.add((T) pair[1]);
+        }
+        return result;
+    }
+
+    /**
+     * Sorts by the int keys, with an LSD radix sort of one byte per pass in O(n) time.
+     */
+    static <T> ArrayList<T> sortByInt(List<T> list, ToIntFunction<? super T> keyExtractor) {
+        int size = list.size();
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            // flipping the sign bit makes the signed order an unsigned one
+            keys[i] = (keyExtractor.applyAsInt(list.get(i)) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+        return permute(list, radixSort(keys, Integer.BYTES));
+    }
+
+    /**
+     * Sorts by the long keys, with an LSD radix sort of one byte per pass in O(n) time.
+     */
+    static <T> ArrayList<T> sortByLong(List<T> list, ToLongFunction<? super T> keyExtractor) {
+        int size = list.size();
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyExtractor.applyAsLong(list.get(i)) ^ Long.MIN_VALUE;
+        }
+        return permute(list, radixSort(keys, Long.BYTES));
+    }
+
+    /**
+     * Sorts the unsigned keys of the lowest bytes and returns the original indices in the sorted order.
+     * Passes of a byte which all the keys share are skipped.
+     */
+    private static int[] radixSort(long[] keys, int bytes) {
+        int size = keys.length;
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (size < RADIX_THRESHOLD) {
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> Long.compareUnsigned(keys[a], keys[b]));
+            for (int i = 0; i < size; i++) {
+                order[i] = boxed[i];
+            }
+            return order;
+        }
+
+        long[] sortedKeys = keys.clone();
+        long[] keyBuffer = new long[size];
+        int[] orderBuffer = new int[size];
+        int[] counts = new int[257];
+        for (int shift = 0; shift < bytes * 8; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (long key : sortedKeys) {
+                counts[(int) (key >>> shift & 0xFF) + 1]++;
+            }
+            if (counts[(int) (sortedKeys[0] >>> shift & 0xFF) + 1] == size) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (int i = 0; i < size; i++) {
+                int slot = counts[(int) (sortedKeys[i] >>> shift & 0xFF)]++;
+                keyBuffer[slot] = sortedKeys[i];
+                orderBuffer[slot] = order[i];
+            }
+            long[] keyTmp = sortedKeys;
+            sortedKeys = keyBuffer;
+            keyBuffer = keyTmp;
+            int[] orderTmp = order;
+            order = orderBuffer;
+            orderBuffer = orderTmp;
+        }
+        return order;
+    }
+
+    private static <T> ArrayList<T> permute(List<T> list, int[] order) {
+        ArrayList<T> result = new ArrayList<>(order.length);
+        for (int i : order) {
+            result.add(list.get(i));
+        }
+        return result;
+    }
+}
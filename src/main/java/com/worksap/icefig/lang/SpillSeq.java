@@ -0,0 +1,537 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An append-only seq whose memory use stays bounded, for collecting more elements than fit in the heap.
+ * <p>
+ * Appended elements go to a hot in-memory segment. When it holds segmentSize elements, it is encoded with the codec
+ * into a temp file, which is then memory-mapped read-only. Each spilled file ends with a table of the offsets of its
+ * elements, so {@link #get(int)} decodes one element in O(1) time, while iteration decodes the files sequentially.
+ * </p>
+ * <p>
+ * Elements read back from the spilled segments are new decoded objects. This seq is not thread-safe,
+ * and it should be closed to delete the temp files.
+ * </p>
+ * <p>
+ * As the spilled segments are immutable, only the in-place appends are supported. The other in-place methods,
+ * such as set, clear or sortInPlace, throw {@link UnsupportedOperationException}. The methods resulting a new seq
+ * decode all the elements into an in-memory seq first. Appends may go on while the seq is iterated.
+ * </p>
+ *
+ * @see Seqs#newSpillSeq(Codec)
+ */
+public final class SpillSeq<T> extends AbstractSeq<T> implements MutableSeq<T>, AutoCloseable {
+    /**
+     * The default number of elements in a segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 16;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Codec<T> codec;
+    private final int segmentSize;
+    private final Path tempDirectory;
+    private final List<Segment> segments = new ArrayList<>();
+    private ArrayList<T> hot;
+    private boolean frozen;
+    private boolean closed;
+
+    SpillSeq(Codec<T> codec, int segmentSize, Path tempDirectory) {
+        Objects.requireNonNull(codec);
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize should be a positive number.");
+        }
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.tempDirectory = tempDirectory;
+        this.hot = new ArrayList<>();
+    }
+
+    /**
+     * A spilled segment: the encoded elements followed by the table of their offsets.
+     */
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int tableOffset;
+
+        private Segment(Path path, MappedByteBuffer buffer, int tableOffset) {
+            this.path = path;
+            this.buffer = buffer;
+            this.tableOffset = tableOffset;
+        }
+    }
+
+    /**
+     * Append the value at the end of the seq, spilling the hot segment to disk if it is full.
+     *
+     * @return the seq itself
+     * @throws IllegalStateException         if the seq has been closed, or already holds Integer.MAX_VALUE elements
+     * @throws UnsupportedOperationException if the seq has been frozen
+     * @throws UncheckedIOException          if the segment cannot be written to the temp file
+     */
+    @Override
+    public SpillSeq<T> appendInPlace(T value) {
+        checkOpen();
+        if (frozen) {
+            throw new UnsupportedOperationException("The seq has been frozen.");
+        }
+        if (size() == Integer.MAX_VALUE) {
+            throw new IllegalStateException("The seq can not hold more than Integer.MAX_VALUE elements.");
+        }
+        hot.add(value);
+        if (hot.size() == segmentSize) {
+            spill();
+        }
+        return this;
+    }
+
+    /**
+     * Append the values at the end of the seq.
+     *
+     * @return the seq itself
+     * @throws NullPointerException  if values is null
+     * @throws IllegalStateException if the seq has been closed
+     * @throws UncheckedIOException  if a segment cannot be written to the temp file
+     */
+    @Override
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final SpillSeq<T> appendInPlace(T... values) {
+        return appendInPlace(Arrays.asList(values));
+    }
+
+    /**
+     * Append the values at the end of the seq.
+     *
+     * @return the seq itself
+     * @throws NullPointerException  if collection is null
+     * @throws IllegalStateException if the seq has been closed
+     * @throws UncheckedIOException  if a segment cannot be written to the temp file
+     */
+    @Override
+    public SpillSeq<T> appendInPlace(Collection<? extends T> collection) {
+        Objects.requireNonNull(collection);
+        collection.forEach(this::appendInPlace);
+        return this;
+    }
+
+    /**
+     * Append the values at the end of the seq.
+     *
+     * @return the seq itself
+     * @throws NullPointerException  if seq is null
+     * @throws IllegalStateException if the seq has been closed
+     * @throws UncheckedIOException  if a segment cannot be written to the temp file
+     */
+    @Override
+    public SpillSeq<T> appendInPlace(Seq<? extends T> seq) {
+        Objects.requireNonNull(seq);
+        // the size is taken first, so that appending this seq to itself ends
+        for (int i = 0, size = seq.size(); i < size; i++) {
+            appendInPlace(seq.get(i));
+        }
+        return this;
+    }
+
+    @Override
+    public int size() {
+        checkOpen();
+        return segments.size() * segmentSize + hot.size();
+    }
+
+    /**
+     * Returns the element at index, decoding it from its segment if it has been spilled.
+     * A negative index counts from the end of self.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range
+     *                                   (<tt>index &gt;= size() || index &lt; -size()</tt>)
+     * @throws IllegalStateException     if the seq has been closed
+     */
+    @Override
+    public T get(int index) {
+        checkOpen();
+        int size = size();
+        if (index >= size || index < -size)
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size + ", should be within [" + (-size) + ", " + size + ")");
+        if (index < 0)
+            index += size;
+        int segmentIndex = index / segmentSize;
+        if (segmentIndex == segments.size()) {
+            return hot.get(index - segmentIndex * segmentSize);
+        }
+        Segment segment = segments.get(segmentIndex);
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(buffer.getInt(segment.tableOffset + (index - segmentIndex * segmentSize) * Integer.BYTES));
+        return decode(new DataInputStream(new ByteBufferInputStream(buffer)));
+    }
+
+    /**
+     * Iterates the elements in order, decoding the spilled segments sequentially.
+     *
+     * @throws IllegalStateException if the seq has been closed
+     */
+    @Override
+    public Iterator<T> iterator() {
+        checkOpen();
+        return new Itr();
+    }
+
+    /**
+     * Slices the seq and takes action on each slice, like {@link Seq#forEachSlice(int, Consumer)}.
+     * Only one slice is held in memory at a time.
+     *
+     * @param n      the number of elements in each slice except the last one
+     * @param action the action to take on each slice
+     * @throws IllegalArgumentException if <tt>n &lt;= 0</tt>
+     * @throws NullPointerException     if action is null
+     * @throws IllegalStateException    if the seq has been closed
+     */
+    @Override
+    public void forEachSlice(int n, Consumer<Seq<T>> action) {
+        Objects.requireNonNull(action);
+        if (n <= 0)
+            throw new IllegalArgumentException("n should be a positive number.");
+        MutableSeq<T> slice = new SeqImpl<>(Math.min(n, size()));
+        for (T t : this) {
+            slice.appendInPlace(t);
+            if (slice.size() == n) {
+                action.accept(slice);
+                slice = new SeqImpl<>(Math.min(n, size()));
+            }
+        }
+        if (!slice.isEmpty()) {
+            action.accept(slice);
+        }
+    }
+
+    /**
+     * Copies all the elements into an in-memory seq.
+     *
+     * @throws IllegalStateException if the seq has been closed
+     */
+    @Override
+    public MutableSeq<T> toSeq() {
+        MutableSeq<T> seq = new SeqImpl<>(size());
+        for (T t : this) {
+            seq.appendInPlace(t);
+        }
+        return seq;
+    }
+
+    /**
+     * Copies the elements from fromIndex, inclusive, to toIndex, exclusive, into an in-memory seq.
+     *
+     * @throws IndexOutOfBoundsException if fromIndex &lt; 0, toIndex &gt; size() or fromIndex &gt; toIndex
+     * @throws IllegalStateException     if the seq has been closed
+     */
+    @Override
+    public MutableSeq<T> subSeq(int fromIndex, int toIndex) {
+        int size = size();
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex " + fromIndex + ", toIndex " + toIndex + ", size " + size);
+        }
+        MutableSeq<T> seq = new SeqImpl<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            seq.appendInPlace(get(i));
+        }
+        return seq;
+    }
+
+    /**
+     * Rejects any further append. The spilled segments are kept until the seq is closed.
+     *
+     * @return the seq itself
+     */
+    @Override
+    public Seq<T> freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Not supported, since a snapshot would have to copy all the elements into the heap.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Seq<T> snapshot() {
+        throw unsupported();
+    }
+
+    @Override
+    @SafeVarargs
+    public final MutableSeq<T> prependInPlace(T... values) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> prependInPlace(T value) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> prependInPlace(Collection<? extends T> collection) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> prependInPlace(Seq<? extends T> seq) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> clear() {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> set(int i, T t) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> shuffleInPlace() {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> reverseInPlace() {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> distinctInPlace() {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> repeatInPlace(int times) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> compactInPlace() {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> sortInPlace(Comparator<? super T> comparator) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> partialSortInPlace(int k, Comparator<? super T> comparator) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> parallelSortInPlace(Comparator<? super T> comparator) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> filterInPlace(Predicate<T> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> filterInPlace(BiPredicate<T, Integer> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> filterWhileInPlace(Predicate<T> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> filterWhileInPlace(BiPredicate<T, Integer> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> rejectInPlace(Predicate<T> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> rejectInPlace(BiPredicate<T, Integer> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> rejectWhileInPlace(Predicate<T> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> rejectWhileInPlace(BiPredicate<T, Integer> condition) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> swapInPlace(int i, int j) {
+        throw unsupported();
+    }
+
+    @Override
+    public MutableSeq<T> rotateInPlace(int distance) {
+        throw unsupported();
+    }
+
+    /**
+     * Deletes the temp files and releases the elements. The seq can no longer be used.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hot = null;
+        for (Segment segment : segments) {
+            delete(segment.path);
+        }
+        segments.clear();
+    }
+
+    private void spill() {
+        Path path = null;
+        try {
+            path = tempDirectory == null
+                    ? Files.createTempFile("icefig-seq-", ".segment")
+                    : Files.createTempFile(tempDirectory, "icefig-seq-", ".segment");
+            int tableOffset;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+                int[] offsets = new int[hot.size()];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = out.size();
+                    codec.write(hot.get(i), out);
+                }
+                tableOffset = out.size();
+                if (tableOffset < 0 || tableOffset > Integer.MAX_VALUE - offsets.length * Integer.BYTES) {
+                    throw new IOException("A segment should be smaller than 2GB, use a smaller segmentSize.");
+                }
+                for (int offset : offsets) {
+                    out.writeInt(offset);
+                }
+                out.flush();
+                segments.add(new Segment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), tableOffset));
+            }
+            hot = new ArrayList<>();
+        } catch (IOException e) {
+            if (path != null) {
+                delete(path);
+            }
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            if (path != null) {
+                delete(path);
+            }
+            throw e;
+        }
+    }
+
+    private T decode(DataInputStream in) {
+        try {
+            return codec.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("A SpillSeq only supports appends.");
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The seq has been closed.");
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // a mapped file may not be deletable on some platforms until the mapping is collected
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    private final class Itr implements Iterator<T> {
+        private int segmentIndex;
+        private int cursor;
+        private DataInputStream in;
+
+        @Override
+        public boolean hasNext() {
+            return !closed && segmentIndex * segmentSize + cursor < size();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (segmentIndex == segments.size()) {
+                return hot.get(cursor++);
+            }
+            if (in == null) {
+                // the segment may have been spilled after some of its elements were returned from the hot segment
+                Segment segment = segments.get(segmentIndex);
+                ByteBuffer buffer = segment.buffer.duplicate();
+                buffer.position(buffer.getInt(segment.tableOffset + cursor * Integer.BYTES));
+                in = new DataInputStream(new ByteBufferInputStream(buffer));
+            }
+            T t = decode(in);
+            if (++cursor == segmentSize) {
+                segmentIndex++;
+                cursor = 0;
+                in = null;
+            }
+            return t;
+        }
+    }
+}
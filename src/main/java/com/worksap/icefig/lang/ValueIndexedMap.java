@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A map which keeps a reverse index from each value to the keys associated with it.
+ * <p>
+ * Every modification, including those made through the entry set and its iterator, updates the index incrementally,
+ * so that looking up the keys of a value, or checking whether a value is present, does not scan the map.
+ * </p>
+ */
+class ValueIndexedMap<K, V> extends AbstractMap<K, V> {
+    private final HashMap<K, V> map = new HashMap<>();
+    private final HashMap<V, Set<K>> index = new HashMap<>();
+    private Set<Map.Entry<K, V>> entrySet;
+
+    ValueIndexedMap() {
+    }
+
+    ValueIndexedMap(Map<? extends K, ? extends V> m) {
+        putAll(m);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return index.containsKey(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        boolean present = map.containsKey(key);
+        V old = map.put(key, value);
+        if (present) {
+            unindex(key, old);
+        }
+        index(key, value);
+        return old;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        V old = map.remove(key);
+        unindex((K) key, old);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        index.clear();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * @return the keys associated with the value, in the order they were associated
+     */
+    Set<K> keysOf(Object value) {
+        Set<K> keys = index.get(value);
+        return keys == null ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * @return the number of keys associated with the value
+     */
+    int count(Object value) {
+        Set<K> keys = index.get(value);
+        return keys == null ? 0 : keys.size();
+    }
+
+    /**
+     * Returns a read-only view mapping each value to one of its keys.
+     * The view reflects later changes of this map.
+     */
+    Map<V, K> inverse() {
+        return new Inverse();
+    }
+
+    private void index(K key, V value) {
+        index.computeIfAbsent(value, v -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void unindex(K key, V value) {
+        Set<K> keys = index.get(value);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            index.remove(value);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public void clear() {
+            ValueIndexedMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            Iterator<Map.Entry<K, V>> each = map.entrySet().iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                Map.Entry<K, V> current;
+
+                @Override
+                public boolean hasNext() {
+                    return each.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    current = each.next();
+                    return new Entry(current);
+                }
+
+                @Override
+                public void remove() {
+                    each.remove();
+                    unindex(current.getKey(), current.getValue());
+                }
+            };
+        }
+    }
+
+    private class Entry implements Map.Entry<K, V> {
+        private final Map.Entry<K, V> entry;
+
+        Entry(Map.Entry<K, V> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = entry.setValue(value);
+            unindex(entry.getKey(), old);
+            index(entry.getKey(), value);
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
+        }
+    }
+
+    private class Inverse extends AbstractMap<V, K> {
+        @Override
+        public int size() {
+            return index.size();
+        }
+
+        @Override
+        public boolean containsKey(Object value) {
+            return index.containsKey(value);
+        }
+
+        @Override
+        public boolean containsValue(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public K get(Object value) {
+            Set<K> keys = index.get(value);
+            return keys == null ? null : keys.iterator().next();
+        }
+
+        @Override
+        public Set<Map.Entry<V, K>> entrySet() {
+            return new AbstractSet<Map.Entry<V, K>>() {
+                @Override
+                public int size() {
+                    return index.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<V, K>> iterator() {
+                    Iterator<Map.Entry<V, Set<K>>> each = index.entrySet().iterator();
+                    return new Iterator<Map.Entry<V, K>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return each.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<V, K> next() {
+                            Map.Entry<V, Set<K>> entry = each.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), entry.getValue().iterator().next());
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
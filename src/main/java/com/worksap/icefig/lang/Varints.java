@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015 The Fig Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.worksap.icefig.lang;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable-length encoding of ints and longs, used by the compact codecs of {@link Codecs}.
+ * <p>
+ * A value is written 7 bits at a time from the lowest, with the high bit of each byte set if more bytes follow,
+ * so small values take a single byte. Signed values are zigzag-encoded first, so small negative values are short too.
+ * </p>
+ */
+final class Varints {
+    private Varints() {
+
+    }
+
+    static void writeUnsignedInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readUnsignedInt(DataInput in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+    static void writeUnsignedLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readUnsignedLong(DataInput in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint.");
+    }
+
+    static void writeInt(DataOutput out, int value) throws IOException {
+        writeUnsignedInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readInt(DataInput in) throws IOException {
+        int zigzag = readUnsignedInt(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    static void writeLong(DataOutput out, long value) throws IOException {
+        writeUnsignedLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readLong(DataInput in) throws IOException {
+        long zigzag = readUnsignedLong(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Reads the length prefix of a structure.
+     *
+     * @throws IOException if the length is negative, which means the input is corrupted
+     */
+    static int readLength(DataInput in) throws IOException {
+        int length = readUnsignedInt(in);
+        if (length < 0) {
+            throw new IOException("Malformed length " + (length & 0xFFFFFFFFL) + ".");
+        }
+        return length;
+    }
+}
@@ -21,7 +21,10 @@ import org.junit.Test;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
 import static org.junit.Assert.*;
@@ -386,4 +389,360 @@ public class HashTest {
         assertEquals(0, mutableHash.count(3));
         assertEquals(2, mutableHash.countIf((k, v) -> v < 3));
     }
+
+    @Test
+    public void testComputeAndMergeInPlace() {
+        MutableHash<String, Integer> hash = Hashes.newMutableHash();
+        hash.computeInPlace("a", (k, v) -> v == null ? 1 : v + 1).computeInPlace("a", (k, v) -> v == null ? 1 : v + 1);
+        assertEquals(new Integer(2), hash.get("a"));
+        hash.computeInPlace("a", (k, v) -> null);
+        assertFalse(hash.containsKey("a"));
+
+        hash.mergeInPlace("b", 3, Integer::sum).mergeInPlace("b", 4, Integer::sum);
+        assertEquals(new Integer(7), hash.get("b"));
+        hash.incrementInPlace("b", 1).incrementInPlace("c", 5);
+        assertEquals(new Integer(8), hash.get("b"));
+        assertEquals(new Integer(5), hash.get("c"));
+
+        MutableHash<String, Long> longHash = Hashes.newMutableHash();
+        assertEquals(new Long(3), longHash.incrementInPlace("a", 1L).incrementInPlace("a", 2L).get("a"));
+        Helpers.assertThrows(NullPointerException.class, () -> hash.computeInPlace("a", null));
+        Helpers.assertThrows(NullPointerException.class, () -> hash.mergeInPlace("a", 1, null));
+        Helpers.assertThrows(NullPointerException.class, () -> hash.incrementInPlace("a", null));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Hashes.<String, String>newMutableHash().incrementInPlace("a", "b").incrementInPlace("a", "b"));
+    }
+
+    @Test
+    public void testConcurrentHash() throws Exception {
+        MutableHash<Integer, Long> hash = Hashes.newConcurrentHash();
+        int threads = 4, increments = 10000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < increments; i++) {
+                    hash.incrementInPlace(i % 10, 1L);
+                    hash.computeInPlace(-1, (k, v) -> v == null ? 1L : v + 1);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(11, hash.size());
+        assertEquals(new Long(threads * increments), hash.get(-1));
+        assertTrue(hash.filter((k, v) -> k >= 0).values().all(v -> v == threads * increments / 10));
+
+        hash.keys().forEach(k -> hash.removeInPlace(k));
+        assertTrue(hash.isEmpty());
+
+        MutableHash<String, Integer> another = Hashes.newConcurrentHash(Hashes.<String, Integer>newHash().put("a", 1).toHashMap());
+        assertEquals(Hashes.newHash().put("a", 1).put("b", 2), another.put("b", 2));
+        assertEquals(1, another.size());
+        assertEquals("a", another.invert().get(1));
+        Helpers.assertThrows(NullPointerException.class, () -> another.putInPlace("c", null));
+        Helpers.assertThrows(NullPointerException.class, () -> another.put(null, 1));
+    }
+
+    @Test
+    public void testBiHash() {
+        MutableHash<String, Integer> hash = Hashes.newBiHash();
+        hash.putInPlace("a", 1).putInPlace("b", 1).putInPlace("c", 2);
+        assertEquals(Seqs.newSeq("a", "b"), hash.keysOf(1));
+        assertEquals(2, hash.count(1));
+        assertTrue(hash.containsValue(2));
+
+        hash.putInPlace("a", 2).replaceInPlace("c", 3).removeInPlace("b");
+        assertEquals(Seqs.newSeq(), hash.keysOf(1));
+        assertFalse(hash.containsValue(1));
+        assertEquals(Seqs.newSeq("a"), hash.keysOf(2));
+        assertEquals(1, hash.count(3));
+
+        hash.replaceAllInPlace((k, v) -> v * 10).filterInPlace((k, v) -> v > 20);
+        assertEquals(0, hash.count(20));
+        assertEquals(Seqs.newSeq("c"), hash.keysOf(30));
+        hash.incrementInPlace("c", 1).mergeInPlace("d", 31, Integer::sum);
+        assertEquals(Seqs.newSeq("c", "d"), hash.keysOf(31));
+
+        Hash<Integer, String> inverted = hash.invert();
+        assertEquals(1, inverted.size());
+        assertTrue(inverted.containsKey(31));
+        hash.putInPlace("e", 5);
+        assertEquals("e", inverted.get(5));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> hash.invert().putInPlace(1, "x"));
+        assertEquals(3, inverted.put(1, "x").size());
+
+        Hash<String, Integer> copy = hash.put("f", 5);
+        assertEquals(Seqs.newSeq("e", "f"), copy.keysOf(5));
+        assertEquals(Seqs.newSeq("e"), hash.keysOf(5));
+        assertEquals(Hashes.newHash().put("c", 31).put("d", 31).put("e", 5), hash);
+
+        hash.clear();
+        assertFalse(hash.containsValue(31));
+        assertTrue(hash.invert().isEmpty());
+    }
+
+    @Test
+    public void testHashBuilder() {
+        HashBuilder<Integer, String> builder = Hashes.newHashBuilder(3);
+        Hash<Integer, String> hash = builder.put(1, "a").put(2, "b").putAll(Hashes.<Integer, String>newHash().put(3, "c")).build();
+        assertEquals(Hashes.newHash().put(1, "a").put(2, "b").put(3, "c"), hash);
+        Helpers.assertThrows(IllegalStateException.class, () -> builder.put(4, "d"));
+        Helpers.assertThrows(IllegalStateException.class, builder::build);
+        assertEquals(3, hash.size());
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> ((MutableHash<Integer, String>) hash).putInPlace(4, "d"));
+        assertEquals(3, hash.size());
+
+        HashMap<Integer, String> map = new HashMap<>();
+        map.put(1, "x");
+        assertEquals("x", Hashes.<Integer, String>newHashBuilder().put(1, "a").putAll(map).build().get(1));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Hashes.newHashBuilder(-1));
+    }
+
+    @Test
+    public void testFreezeAndSnapshot() {
+        MutableHash<String, Integer> hash = Hashes.<String, Integer>newMutableHash().putInPlace("a", 1);
+        Hash<String, Integer> snapshot = hash.snapshot();
+        hash.putInPlace("b", 2).incrementInPlace("a", 1);
+        assertEquals(Hashes.newHash().put("a", 1), snapshot);
+        assertEquals(Hashes.newHash().put("a", 2).put("b", 2), hash);
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> ((MutableHash<String, Integer>) snapshot).putInPlace("c", 3));
+
+        Hash<String, Integer> another = hash.snapshot();
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> another.entrySeq().first().setValue(5));
+        hash.entrySeq().forEach(e -> e.setValue(5));
+        assertEquals(Hashes.newHash().put("a", 2).put("b", 2), another);
+
+        Hash<String, Integer> frozen = hash.freeze();
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> hash.putInPlace("c", 3));
+        Helpers.assertThrows(UnsupportedOperationException.class, hash::clear);
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> hash.filterInPlace((k, v) -> true));
+        assertEquals(3, frozen.put("c", 3).size());
+        assertSame(frozen, hash.snapshot());
+        frozen.toHashMap().clear();
+        assertEquals(2, frozen.size());
+
+        MutableHash<String, Integer> bi = Hashes.<String, Integer>newBiHash().putInPlace("a", 1);
+        Hash<String, Integer> biSnapshot = bi.snapshot();
+        bi.putInPlace("b", 1);
+        assertEquals(Seqs.newSeq("a"), biSnapshot.keysOf(1));
+        assertEquals(Seqs.newSeq("a", "b"), bi.keysOf(1));
+
+        MutableHash<String, Integer> concurrent = Hashes.<String, Integer>newConcurrentHash().putInPlace("a", 1);
+        Hash<String, Integer> concurrentSnapshot = concurrent.snapshot();
+        concurrent.putInPlace("b", 1);
+        assertEquals(1, concurrentSnapshot.size());
+    }
+
+    @Test
+    public void testGrowAndShrink() {
+        MutableHash<Integer, Integer> hash = Hashes.newMutableHash();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            hash.putInPlace(i * 7, i);
+            expected.put(i * 7, i);
+            assertEquals(expected, hash.toHashMap());
+            assertEquals(Seqs.newSeq(expected.keySet()), hash.keys());
+        }
+        for (int i = 0; i < 20; i += 2) {
+            hash.removeInPlace(i * 7);
+            expected.remove(i * 7);
+        }
+        assertEquals(expected, hash.toHashMap());
+        hash.clear();
+        assertTrue(hash.isEmpty());
+
+        MutableHash<String, Integer> small = Hashes.<String, Integer>newMutableHash().putInPlace(null, 0).putInPlace("a", 1).putInPlace("b", 2);
+        assertEquals(new Integer(0), small.get(null));
+        small.filterInPlace((k, v) -> v != 1).replaceAllInPlace((k, v) -> v * 10);
+        assertEquals(Hashes.newHash().put(null, 0).put("b", 20), small);
+        small.entrySeq().forEach(e -> e.setValue(e.getValue() + 1));
+        assertEquals(new Integer(21), small.get("b"));
+        assertTrue(small.containsValue(1));
+        assertFalse(small.containsKey("a"));
+    }
+
+    @Test
+    public void testEntrySeqOutlivesChanges() {
+        MutableHash<String, Integer> hash = Hashes.<String, Integer>newMutableHash().putInPlace("a", 1).putInPlace("b", 2).putInPlace("c", 3);
+        Seq<Map.Entry<String, Integer>> entries = hash.entrySeq();
+        Map<String, Integer> expected = new HashMap<>();
+        entries.forEach(e -> expected.put(e.getKey(), e.getValue()));
+        hash.removeInPlace("a");
+        Map<String, Integer> actual = new HashMap<>();
+        entries.forEach(e -> actual.put(e.getKey(), e.getValue()));
+        assertEquals(expected, actual);
+
+        entries.forEach(e -> e.setValue(e.getValue() * 10));
+        assertEquals(Hashes.newHash().put("b", 20).put("c", 30), hash);
+
+        for (int i = 0; i < 20; i++) {
+            hash.putInPlace("k" + i, i);
+        }
+        entries.forEach(e -> e.setValue(e.getValue() + 1));
+        assertEquals(new Integer(21), hash.get("b"));
+        assertFalse(hash.containsKey("a"));
+
+        hash.clear();
+        assertEquals(3, entries.size());
+        entries.forEach(e -> assertNotNull(e.getKey()));
+    }
+
+    @Test
+    public void testIntHash() {
+        IntHash<String> hash = Hashes.newIntHash();
+        HashMap<Integer, String> expected = new HashMap<>();
+        for (int i = -50; i < 50; i++) {
+            hash.putInPlace(i * 16, "v" + i % 3);
+            expected.put(i * 16, "v" + i % 3);
+        }
+        assertEquals(100, hash.size());
+        assertEquals(expected, hash.toHash().toHashMap());
+        assertEquals("v0", hash.get(0));
+        assertNull(hash.get(1));
+        assertEquals("x", hash.get(1, "x"));
+
+        for (int i = -50; i < 50; i += 3) {
+            hash.removeInPlace(i * 16);
+            expected.remove(i * 16);
+        }
+        assertEquals(expected, hash.toHash().toHashMap());
+        for (int key : expected.keySet()) {
+            assertTrue(hash.containsKey(key));
+        }
+        assertFalse(hash.containsKey(-47 * 16));
+
+        IntHash<String> copy = hash.put(7, "seven");
+        assertFalse(hash.containsKey(7));
+        assertEquals("seven", copy.get(7));
+        assertEquals(hash, copy.remove(7));
+        assertEquals(hash.hashCode(), copy.remove(7).hashCode());
+
+        assertEquals(hash.count("v1"), hash.keysOf("v1").length);
+        assertEquals(hash.countIf((k, v) -> k > 0), hash.filter((k, v) -> k > 0).size());
+        assertEquals(hash.size(), hash.filter((k, v) -> k > 0).size() + hash.reject((k, v) -> k > 0).size());
+        hash.rejectInPlace((k, v) -> k % 32 == 0);
+        assertFalse(hash.containsAny((k, v) -> k % 32 == 0));
+        assertEquals(hash.size(), hash.countIf((k, v) -> k % 32 != 0));
+
+        IntHash<String> merged = Hashes.<String>newIntHash().putInPlace(0, "zero").putInPlace(1, "one")
+                .merge(Hashes.<String>newIntHash(1, 0.5f).putInPlace(1, "ONE"));
+        assertEquals("{0=zero, 1=ONE}", merged.toString());
+        assertTrue(merged.containsValue("ONE"));
+        assertTrue(merged.clear().isEmpty());
+
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Hashes.newIntHash(-1));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Hashes.newIntHash(10, 1f));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Hashes.newIntHash(10, 0f));
+    }
+
+    @Test
+    public void testLongHash() {
+        LongHash<Integer> hash = Hashes.newLongHash(4, 0.9f);
+        HashMap<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            long key = (long) i << 32;
+            hash.putInPlace(key, i % 5);
+            expected.put(key, i % 5);
+        }
+        assertEquals(expected, hash.toHash().toHashMap());
+        for (int i = 0; i < 200; i += 2) {
+            hash.removeInPlace((long) i << 32);
+            expected.remove((long) i << 32);
+        }
+        assertEquals(expected, hash.toHash().toHashMap());
+        assertEquals(new Integer(1), hash.get(1L << 32));
+        assertFalse(hash.containsKey(0));
+        assertEquals(20, hash.keysOf(1).length);
+        assertEquals(hash.count(3), hash.filter((k, v) -> v == 3).size());
+        assertEquals(0, hash.filterInPlace((k, v) -> v == 3).countIf((k, v) -> v != 3));
+        assertEquals(hash.size(), hash.values().size());
+    }
+
+    @Test
+    public void testLongLongHash() {
+        LongLongHash hash = Hashes.newLongLongHash();
+        for (long i = 0; i < 100; i++) {
+            hash.incrementInPlace(i % 10, i);
+        }
+        assertEquals(10, hash.size());
+        assertEquals(450, hash.get(0, -1));
+        assertEquals(-1, hash.get(10, -1));
+        assertArrayEquals(new long[]{0}, hash.keysOf(450));
+        assertEquals(hash, hash.increment(100, 1).remove(100));
+        assertEquals(5, hash.countIf((k, v) -> k % 2 == 0));
+        assertEquals(5, hash.reject((k, v) -> k % 2 == 0).size());
+
+        LongLongHash merged = hash.merge(Hashes.newLongLongHash().putInPlace(0, 1).putInPlace(Long.MIN_VALUE, 2));
+        assertEquals(11, merged.size());
+        assertEquals(1, merged.get(0, -1));
+        assertEquals(2, merged.get(Long.MIN_VALUE, -1));
+        assertEquals(450, hash.get(0, -1));
+        assertEquals(new Long(2), merged.toHash().get(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testSortedHash() {
+        MutableSortedHash<Integer, String> hash = Hashes.newMutableSortedHash();
+        for (int i = 20; i > 0; i -= 2) {
+            hash.putInPlace(i, "v" + i);
+        }
+        assertEquals(Seqs.newSeq(2, 4, 6, 8, 10, 12, 14, 16, 18, 20), hash.keys());
+        assertEquals("v2", hash.values().first());
+        assertEquals(new Integer(2), hash.entrySeq().first().getKey());
+        assertEquals(new Integer(2), hash.firstKey());
+        assertEquals(new Integer(20), hash.lastKey());
+        assertEquals(new Integer(6), hash.floorKey(7));
+        assertEquals(new Integer(6), hash.floorKey(6));
+        assertEquals(new Integer(8), hash.ceilingKey(7));
+        assertEquals(new Integer(4), hash.lowerKey(6));
+        assertEquals(new Integer(8), hash.higherKey(6));
+        assertNull(hash.floorKey(1));
+        assertNull(hash.ceilingKey(21));
+
+        assertEquals(Seqs.newSeq(6, 8, 10), hash.subHash(5, 12).keys());
+        assertEquals(Seqs.newSeq(2, 4), hash.headHash(6).keys());
+        assertEquals(Seqs.newSeq(18, 20), hash.tailHash(18).keys());
+        MutableSortedHash<Integer, String> sub = hash.subHash(5, 12);
+        sub.putInPlace(100, "v100");
+        assertFalse(hash.containsKey(100));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> hash.subHash(12, 5));
+
+        SortedHash<Integer, String> filtered = hash.filter((k, v) -> k > 15);
+        assertEquals(Seqs.newSeq(16, 18, 20), filtered.keys());
+        assertEquals(Seqs.newSeq(2, 4, 100), hash.put(100, "x").headHash(6).put(100, "y").keys());
+        assertEquals(new Integer(10), hash.invert().get("v10"));
+
+        SortedHash<String, Integer> reversed = Hashes.<String, Integer>newSortedHash(Comparator.reverseOrder())
+                .put("a", 1).put("c", 3).put("b", 2).put("d", 4);
+        assertEquals(Seqs.newSeq("d", "c", "b", "a"), reversed.keys());
+        assertEquals(Seqs.newSeq("c", "b"), reversed.subHash("c", "a").keys());
+
+        SortedHash<Integer, String> snapshot = hash.snapshot();
+        hash.removeInPlace(2);
+        assertEquals(new Integer(2), snapshot.firstKey());
+        assertEquals(new Integer(4), hash.firstKey());
+        Helpers.assertThrows(NoSuchElementException.class, () -> Hashes.newSortedHash().firstKey());
+        Helpers.assertThrows(NullPointerException.class, () -> Hashes.newSortedHash((Comparator<Integer>) null));
+    }
+
+    @Test
+    public void testToHash() {
+        Hash<Integer, Integer> hash = Seqs.newSeq(1, 2, 3, 4, 5, 6).stream().collect(Hashes.toHash(i -> i % 3, i -> i));
+        assertEquals(Hashes.newHash().put(1, 4).put(2, 5).put(0, 6), hash);
+
+        Seq<Integer> seq = new Range<>(0).next(i -> i + 1).until(10000).toSeq();
+        Hash<Integer, Integer> parallel = seq.parallelStream().collect(Hashes.toHash(i -> i % 100, i -> i));
+        assertEquals(100, parallel.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(new Integer(9900 + i), parallel.get(i));
+        }
+
+        Hash<Integer, Integer> sums = seq.parallelStream().collect(Hashes.toHash(i -> i % 2, i -> i, Integer::sum));
+        assertEquals(new Integer(24995000), sums.get(0));
+        assertEquals(new Integer(25000000), sums.get(1));
+        Hash<Integer, String> joined = Seqs.newSeq("a", "b", "c").stream().collect(Hashes.toHash(s -> 0, s -> s, String::concat));
+        assertEquals("abc", joined.get(0));
+        Helpers.assertThrows(NullPointerException.class, () -> Hashes.toHash(null, i -> i));
+    }
 }
@@ -25,6 +25,11 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -170,8 +175,17 @@ public class RangeTest {
         assertThat(new Range<>(1).next(i -> i + 1).take(0), equalTo(Seqs.newMutableSeq()));
         assertThat(new Range<>(1).next(i -> i + 1).take(5), equalTo(Seqs.newMutableSeq(1, 2, 3, 4, 5)));
         assertThat(new Range<>(1).next(i -> i + 1).to(3).take(5), equalTo(Seqs.newMutableSeq(1, 2, 3)));
+    }
 
-        Helpers.assertThrows(UnsupportedOperationException.class, () -> new Range<>(1).spliterator());
+    @Test
+    public void testStream() {
+        Range<Integer> range = new Range<>(1).next(i -> i + 1).to(1000);
+        assertThat(range.stream().mapToInt(i -> i).sum(), is(500500));
+        assertThat(range.parallelStream().mapToInt(i -> i).sum(), is(500500));
+        assertThat(range.parallelStream().filter(i -> i % 100 == 0).collect(Seqs.toSeq()),
+                equalTo(Seqs.newSeq(100, 200, 300, 400, 500, 600, 700, 800, 900, 1000)));
+        assertThat(new Range<>(1).next(i -> i * 2).stream().limit(5).collect(Seqs.toSeq()), equalTo(Seqs.newSeq(1, 2, 4, 8, 16)));
+        assertThat(range.spliterator().hasCharacteristics(Spliterator.ORDERED), is(true));
     }
 
     @Test
@@ -191,4 +205,147 @@ public class RangeTest {
                 }), equalTo(Seqs.newMutableSeq(1, 2, 4, 8, 16, 32)));
         assertThat(indices, equalTo(Arrays.asList(0, 1, 2, 3, 4, 5, 6)));
     }
+
+    @Test
+    public void testIntRange() {
+        IntRange range = Range.ofInt(1, 10, 3);
+        assertThat(range.size(), is(4L));
+        assertThat(range.toSeq(), equalTo(Seqs.newSeq(1, 4, 7, 10)));
+        assertThat(range.toIntSeq(), equalTo(Seqs.newIntSeq(1, 4, 7, 10)));
+        assertThat(range.get(2), is(7));
+        assertThat(range.contains(7), is(true));
+        assertThat(range.contains(8), is(false));
+        assertThat(range.contains(13), is(false));
+        assertThat(range.contains(-2), is(false));
+        assertThat(range.take(2), equalTo(Seqs.newSeq(1, 4)));
+        assertThat(range.takeWhile((e, i) -> i < 3), equalTo(Seqs.newSeq(1, 4, 7)));
+        assertThat(range.intStream().sum(), is(22));
+        Helpers.assertThrows(IndexOutOfBoundsException.class, () -> range.get(4));
+
+        assertThat(Range.ofInt(10, 1, -4).toIntSeq(), equalTo(Seqs.newIntSeq(10, 6, 2)));
+        assertThat(Range.ofInt(1, 10, -1).isEmpty(), is(true));
+        assertThat(Range.ofInt(1, 10, -1).toSeq(), equalTo(Seqs.newSeq()));
+        assertThat(Range.ofInt(5, 5).toIntSeq(), equalTo(Seqs.newIntSeq(5)));
+        assertThat(Range.ofInt(Integer.MAX_VALUE - 2, Integer.MAX_VALUE).toSeq(),
+                equalTo(Seqs.newSeq(Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE)));
+        assertThat(Range.ofInt(Integer.MIN_VALUE, Integer.MAX_VALUE).size(), is(1L << 32));
+        assertThat(Range.ofInt(Integer.MIN_VALUE, Integer.MAX_VALUE).contains(0), is(true));
+        assertThat(Range.ofInt(1, 1000000).parallelIntStream().asLongStream().sum(), is(500000500000L));
+
+        List<Integer> elements = new ArrayList<>();
+        for (int e : Range.ofInt(0, 4, 2)) {
+            elements.add(e);
+        }
+        assertThat(elements, equalTo(Arrays.asList(0, 2, 4)));
+
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Range.ofInt(1, 10, 0));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> range.from(3));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> range.next(i -> i + 1));
+        Helpers.assertThrows(IllegalStateException.class, () -> Range.ofInt(Integer.MIN_VALUE, Integer.MAX_VALUE).toIntSeq());
+    }
+
+    @Test
+    public void testLongRange() {
+        LongRange range = Range.ofLong(0, 1L << 40, 1L << 38);
+        assertThat(range.size(), is(5L));
+        assertThat(range.toLongSeq(), equalTo(Seqs.newLongSeq(0, 1L << 38, 2L << 38, 3L << 38, 4L << 38)));
+        assertThat(range.get(4), is(1L << 40));
+        assertThat(range.contains(3L << 38), is(true));
+        assertThat(range.contains((3L << 38) + 1), is(false));
+        assertThat(range.longStream().count(), is(5L));
+
+        assertThat(Range.ofLong(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE).toLongSeq(),
+                equalTo(Seqs.newLongSeq(Long.MIN_VALUE, -1, Long.MAX_VALUE - 1)));
+        assertThat(Range.ofLong(Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE).toSeq(),
+                equalTo(Seqs.newSeq(Long.MAX_VALUE, -1L)));
+        assertThat(Range.ofLong(1, Long.MAX_VALUE).size(), is(Long.MAX_VALUE));
+        assertThat(Range.ofLong(1, Long.MAX_VALUE).contains(0), is(false));
+        assertThat(Range.ofLong(10, 1).isEmpty(), is(true));
+        assertThat(Range.ofLong(1, 100000).parallelLongStream().sum(), is(5000050000L));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Range.ofLong(0, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testLazyOperations() {
+        List<Integer> generated = new ArrayList<>();
+        Range<Integer> naturals = new Range<>(1).next(i -> {
+            generated.add(i);
+            return i + 1;
+        });
+        Generator<Integer> squares = naturals.map(i -> i * i).filter(i -> i % 2 == 1);
+        assertThat(generated.isEmpty(), is(true));
+        assertThat(squares.take(3).toSeq(), equalTo(Seqs.newSeq(1, 9, 25)));
+        assertThat(generated.size(), is(5));
+        assertThat(squares.findFirst(i -> i > 100), is(121));
+        assertThat(naturals.findFirst(i -> i > 100), is(101));
+        assertThat(naturals.drop(5).take(2).toSeq(), equalTo(Seqs.newSeq(6, 7)));
+        assertThat(naturals.dropWhile(i -> i < 10).takeWhile(i -> i < 13).toSeq(), equalTo(Seqs.newSeq(10, 11, 12)));
+        assertThat(naturals.dropWhile(i -> i % 3 != 0).filter(i -> i % 2 == 0).take(2).toSeq(), equalTo(Seqs.newSeq(4, 6)));
+        assertThat(naturals.generator().reject(i -> i < 3).any(i -> i == 3), is(true));
+
+        Range<Integer> range = new Range<>(1).to(10).next(i -> i + 1);
+        assertThat(range.reduce(Integer::sum), is(55));
+        assertThat(range.reduce(0L, (sum, i) -> sum + i), is(55L));
+        assertThat(range.count(), is(10L));
+        assertThat(range.drop(10).count(), is(0L));
+        assertThat(range.drop(20).toSeq(), equalTo(Seqs.newSeq()));
+        assertThat(new Range<>(1).until(1).next(i -> i + 1).reduce(Integer::sum), is((Integer) null));
+        assertThat(range.filter(i -> i > 100).findFirst(i -> true), is((Integer) null));
+        assertThat(range.map(i -> i * 2).reduce(Integer::sum), is(110));
+
+        List<Seq<Integer>> slices = new ArrayList<>();
+        range.forEachSlice(4, slices::add);
+        assertThat(slices, equalTo(Arrays.asList(Seqs.newSeq(1, 2, 3, 4), Seqs.newSeq(5, 6, 7, 8), Seqs.newSeq(9, 10))));
+        slices.clear();
+        range.map(i -> i).forEachSlice(Integer.MAX_VALUE, slices::add);
+        assertThat(slices, equalTo(Arrays.asList(range.toSeq())));
+        assertThat(Range.ofLong(1, 3000000000L).count(), is(3000000000L));
+        assertThat(Range.ofInt(1, 100).filter(i -> i % 10 == 0).count(), is(10L));
+
+        Helpers.assertThrows(IllegalArgumentException.class, () -> range.drop(-1));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> range.forEachSlice(0, slices::add));
+        Helpers.assertThrows(NullPointerException.class, () -> new Range<>(1).next(i -> i + 1).count());
+        Helpers.assertThrows(NoSuchElementException.class, () -> range.filter(i -> i > 100).iterator().next());
+    }
+
+    @Test
+    public void testParallel() {
+        AtomicLong sum = new AtomicLong();
+        Range.ofLong(1, 1000000).parallelForEach(sum::addAndGet);
+        assertThat(sum.get(), is(500000500000L));
+
+        Set<Integer> seen = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        new Range<>(0).until(5000).next(i -> i + 1).parallelForEach(new ForkJoinPool(3), seen::add);
+        assertThat(seen.size(), is(5000));
+
+        assertThat(Range.ofInt(1, 100000).parallelReduce(0L, (acc, i) -> acc + i, Long::sum), is(5000050000L));
+        assertThat(Range.ofInt(1, 0).parallelReduce(0L, (acc, i) -> acc + i, Long::sum), is(0L));
+        String joined = new Range<>('a').to('z').next(c -> (char) (c + 1))
+                .parallelReduce("", (acc, c) -> acc + c, String::concat);
+        assertThat(joined, is("abcdefghijklmnopqrstuvwxyz"));
+        Range<Integer> generated = new Range<>(0).until(3000).next(i -> i + 1);
+        assertThat(generated.parallelReduce(new ForkJoinPool(4), Seqs.<Integer>newSeq(),
+                (acc, i) -> acc.append(i), Seq::append), equalTo(generated.toSeq()));
+        assertThat(Range.ofInt(0, 9999).parallelReduce(new ForkJoinPool(4), Seqs.<Integer>newSeq(),
+                (acc, i) -> acc.append(i), Seq::append), equalTo(Range.ofInt(0, 9999).toSeq()));
+
+        Helpers.assertThrows(NullPointerException.class, () -> new Range<>(1).next(i -> i + 1).parallelForEach(i -> {
+        }));
+    }
+
+    @Test
+    public void testLongIndex() {
+        Range<Long> range = new Range<>(1L).to(1L << 40).nextIndexed((e, i) -> e + i + 1);
+        assertThat(range.take(5), equalTo(Seqs.newSeq(1L, 2L, 4L, 7L, 11L)));
+        assertThat(range.takeLong(4).toSeq(), equalTo(Seqs.newSeq(1L, 2L, 4L, 7L)));
+
+        List<Long> indices = new ArrayList<>();
+        new Range<>('a').to('c').next(c -> (char) (c + 1)).forEachIndexed((c, i) -> indices.add(i));
+        assertThat(indices, equalTo(Arrays.asList(0L, 1L, 2L)));
+
+        assertThat(Range.ofLong(0, 2999999999L).takeLong(5).count(), is(5L));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> range.takeLong(-1));
+        Helpers.assertThrows(NullPointerException.class, () -> range.nextIndexed(null));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> Range.ofInt(1, 2).nextIndexed((e, i) -> e));
+    }
 }
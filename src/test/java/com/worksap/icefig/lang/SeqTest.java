@@ -18,8 +18,21 @@ package com.worksap.icefig.lang;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.*;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -312,6 +325,9 @@ public class SeqTest {
 
         assertArrayEquals(new Integer[]{1, 2, 3}, seq.sort(null).toArray());
         assertEquals(Seqs.newMutableSeq(), Seqs.newMutableSeq().sort(null));
+
+        // the sorted seq is a plain seq, which can be changed freely
+        assertEquals(Seqs.newSeq(0, 2, 3, 9), seq.sort(null).appendInPlace(9).set(0, 0));
     }
 
     @Test
@@ -753,4 +769,847 @@ public class SeqTest {
         seq.rotateInPlace(-2);
         assertThat(seq, equalTo(Seqs.newMutableSeq(3, 4, 5, 1, 2)));
     }
+
+    @Test
+    public void testSeqBuilder() {
+        SeqBuilder<Integer> builder = Seqs.newSeqBuilder(4);
+        Seq<Integer> seq = builder.append(1).append(2, 3).append(Arrays.asList(4, 5)).append(Seqs.newSeq(6)).build();
+        assertEquals(Seqs.newSeq(1, 2, 3, 4, 5, 6), seq);
+        Helpers.assertThrows(IllegalStateException.class, () -> builder.append(7));
+        Helpers.assertThrows(IllegalStateException.class, builder::size);
+        assertEquals(6, seq.size());
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> ((MutableSeq<Integer>) seq).appendInPlace(7));
+        assertEquals(6, seq.size());
+
+        assertEquals(2, Seqs.newSeqBuilder().append("a").append("b").size());
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Seqs.newSeqBuilder(-1));
+    }
+
+    @Test
+    public void testFreeze() {
+        MutableSeq<Integer> seq = Seqs.newMutableSeq(1, 2, 3);
+        Seq<Integer> frozen = seq.freeze();
+        assertEquals(Seqs.newSeq(1, 2, 3), frozen);
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> seq.appendInPlace(4));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> seq.set(0, 4));
+        Helpers.assertThrows(UnsupportedOperationException.class, seq::clear);
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> seq.sortInPlace(null));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> seq.filterInPlace(i -> i > 1));
+        assertEquals(Seqs.newSeq(1, 2, 3, 4), frozen.append(4));
+        assertSame(frozen, seq.snapshot());
+
+        frozen.toArrayList().add(4);
+        assertEquals(3, frozen.size());
+    }
+
+    @Test
+    public void testSnapshot() {
+        MutableSeq<Integer> seq = Seqs.newMutableSeq(1, 2, 3);
+        Seq<Integer> snapshot = seq.snapshot();
+        seq.appendInPlace(4).set(0, 0);
+        assertEquals(Seqs.newSeq(1, 2, 3), snapshot);
+        assertEquals(Seqs.newSeq(0, 2, 3, 4), seq);
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> ((MutableSeq<Integer>) snapshot).appendInPlace(5));
+
+        Seq<Integer> another = seq.snapshot();
+        seq.reverseInPlace();
+        assertEquals(Seqs.newSeq(0, 2, 3, 4), another);
+        assertEquals(Seqs.newSeq(4, 3, 2, 0), seq);
+        seq.appendInPlace(seq);
+        assertEquals(Seqs.newSeq(4, 3, 2, 0, 4, 3, 2, 0), seq);
+    }
+
+    @Test
+    public void testEmptySeq() {
+        Seq<Integer> empty = Seqs.newSeq();
+        assertSame(empty, Seqs.<String>newSeq());
+        assertTrue(empty.isEmpty());
+        assertEquals(Seqs.newSeq(1), empty.append(1));
+        assertTrue(Seqs.newSeq().isEmpty());
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> ((MutableSeq<Integer>) empty).appendInPlace(1));
+    }
+
+    @Test
+    public void testStream() {
+        MutableSeq<Integer> seq = Seqs.newMutableSeq();
+        for (int i = 0; i < 1000; i++) {
+            seq.appendInPlace(i);
+        }
+        Spliterator<Integer> spliterator = seq.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        assertEquals(1000, spliterator.getExactSizeIfKnown());
+        assertEquals(500, spliterator.trySplit().getExactSizeIfKnown());
+
+        assertEquals(499500, seq.stream().mapToInt(i -> i).sum());
+        assertEquals(seq.map(i -> i * 2), seq.parallelStream().map(i -> i * 2).collect(Seqs.toSeq()));
+        assertEquals(Seqs.newSeq(), Seqs.<Integer>newSeq().stream().collect(Seqs.toSeq()));
+        MutableSeq<Integer> collected = seq.stream().limit(3).collect(Seqs.toMutableSeq());
+        assertEquals(Seqs.newSeq(0, 1, 2, 3), collected.appendInPlace(3));
+
+        Seq<Integer> snapshot = seq.snapshot();
+        seq.clear();
+        assertEquals(1000, snapshot.stream().count());
+    }
+
+    @Test
+    public void testIntSeqAndLongSeq() {
+        int[] array = {3, 1, 2};
+        IntSeq ints = Seqs.newIntSeq(array);
+        array[0] = 100;
+        assertEquals(3, ints.get(0));
+        assertEquals(3, ints.size());
+        assertEquals(6, ints.sum());
+        assertEquals(3, ints.max().getAsInt());
+        assertEquals(1, ints.min().getAsInt());
+        assertEquals(2, ints.indexOf(2));
+        assertFalse(ints.contains(100));
+        assertEquals(Seqs.newSeq(3, 1, 2), ints.toSeq());
+        assertEquals("[3, 1, 2]", ints.toString());
+        assertTrue(Seqs.newIntSeq().isEmpty());
+        Helpers.assertThrows(IndexOutOfBoundsException.class, () -> ints.get(3));
+
+        LongSeq longs = Seqs.newLongSeq(Long.MAX_VALUE, 1);
+        assertEquals(Long.MAX_VALUE, longs.get(0));
+        assertArrayEquals(new long[]{Long.MAX_VALUE, 1}, longs.toArray());
+        assertEquals(Seqs.newSeq(Long.MAX_VALUE, 1L), longs.toSeq());
+        assertEquals(Seqs.newLongSeq(Long.MAX_VALUE, 1).hashCode(), longs.hashCode());
+    }
+
+    @Test
+    public void testHashJoin() {
+        Seq<String> users = Seqs.newSeq("1:alice", "2:bob", "3:carol", "2:bobby");
+        Seq<String> orders = Seqs.newSeq("2:book", "1:pen", "2:cup", "4:ink");
+        Function<String, String> id = s -> s.split(":")[0];
+        Function<String, String> name = s -> s.split(":")[1];
+
+        Seq<String> expected = Seqs.newSeq("alice-pen", "bob-book", "bob-cup", "bobby-book", "bobby-cup");
+        assertEquals(expected, users.join(orders, id, id, (u, o) -> name.apply(u) + "-" + name.apply(o)));
+        // the smaller side is the build side, the result keeps the same order
+        assertEquals(expected, users.append("5:dave").join(orders, id, id, (u, o) -> name.apply(u) + "-" + name.apply(o)));
+        assertEquals(Seqs.newSeq("book-bob", "book-bobby", "pen-alice", "cup-bob", "cup-bobby"),
+                orders.join(users, id, id, (o, u) -> name.apply(o) + "-" + name.apply(u)));
+
+        assertEquals(Seqs.newSeq("alice-pen", "bob-book", "bob-cup", "carol-null", "bobby-book", "bobby-cup"),
+                users.leftJoin(orders, id, id, (u, o) -> name.apply(u) + "-" + (o == null ? null : name.apply(o))));
+        assertEquals(Seqs.newSeq("1:alice", "2:bob", "2:bobby"), users.semiJoin(orders, id, id));
+        assertEquals(Seqs.newSeq("1:alice", "2:bob", "2:bobby"), users.semiJoin(orders.append(orders), id, id));
+        assertEquals(Seqs.newSeq("3:carol"), users.antiJoin(orders, id, id));
+        assertEquals(Seqs.newSeq("4:ink"), orders.antiJoin(users.append("9:x"), id, id));
+
+        Seq<Integer> ints = Seqs.newSeq(1, 2, 3);
+        assertEquals(Seqs.newSeq(), ints.join(Seqs.newSeq(), i -> i, i -> i, (a, b) -> a));
+        assertEquals(Seqs.newSeq(), Seqs.<Integer>newSeq().semiJoin(ints, i -> i, i -> i));
+        assertEquals(ints, ints.antiJoin(Seqs.<Integer>newSeq(), i -> i, i -> i));
+        Helpers.assertThrows(NullPointerException.class, () -> ints.join(ints, i -> i, i -> i, null));
+        Helpers.assertThrows(NullPointerException.class, () -> ints.semiJoin(null, i -> i, i -> i));
+    }
+
+    @Test
+    public void testGroupByAndAggregateBy() {
+        Seq<String> words = Seqs.newSeq("apple", "avocado", "banana", "blueberry", "cherry", "apricot");
+        Hash<Character, Seq<String>> groups = words.groupBy(w -> w.charAt(0));
+        assertEquals(3, groups.size());
+        assertEquals(Seqs.newSeq("apple", "avocado", "apricot"), groups.get('a'));
+        assertEquals(Seqs.newSeq("cherry"), groups.get('c'));
+        assertTrue(Seqs.newSeq().groupBy(o -> o).isEmpty());
+
+        Hash<Character, Integer> lengths = words.aggregateBy(w -> w.charAt(0), 0, (sum, w) -> sum + w.length());
+        assertEquals(Hashes.<Character, Integer>newHash().put('a', 19).put('b', 15).put('c', 6), lengths);
+        Hash<Integer, String> joined = Seqs.newSeq(1, 2, 3, 4, 5).aggregateBy(i -> i % 2, "", (acc, i) -> acc + i);
+        assertEquals("135", joined.get(1));
+        assertEquals("24", joined.get(0));
+        Hash<Boolean, Integer> nulls = Seqs.newSeq(1, 2, 3).aggregateBy(i -> i > 1, null, (acc, i) -> acc == null ? i : null);
+        assertNull(nulls.get(true));
+        assertEquals(new Integer(1), nulls.get(false));
+        Helpers.assertThrows(NullPointerException.class, () -> words.groupBy(null));
+    }
+
+    @Test
+    public void testSortedSeqMergeScan() {
+        SortedSeq<Integer> a = Seqs.newSortedSeq(null, 5, 1, 3, 3, 7, 9);
+        SortedSeq<Integer> b = Seqs.newSortedSeq(Comparator.naturalOrder(), 3, 4, 5, 3, 3, 10);
+        assertEquals(Seqs.newSeq(1, 3, 3, 5, 7, 9), a);
+        assertEquals(Seqs.newSeq(3, 3, 5), a.intersect(b));
+        assertEquals(Seqs.newSeq(1, 7, 9), a.difference(b));
+        assertEquals(Seqs.newSeq(1, 3, 3, 3, 4, 5, 7, 9, 10), a.union(b));
+        assertEquals(Seqs.newSeq(1, 3, 3, 3, 3, 3, 4, 5, 5, 7, 9, 10), a.merge(b));
+        assertEquals(Seqs.newSeq(3, 3, 5), b.intersect(a));
+        assertEquals(Seqs.newSeq(3, 4, 10), b.difference(a));
+        assertEquals(Comparator.naturalOrder(), a.intersect(b).comparator());
+
+        // falls back to hashing for unsorted seqs, while keeping the result sorted
+        SortedSeq<Integer> intersected = a.intersect(Seqs.newSeq(9, 3, 100));
+        assertEquals(Seqs.newSeq(3, 9), intersected);
+        assertEquals(Seqs.newSeq(1, 3, 5, 7), a.difference(Seqs.newSeq(9, 3, 100)));
+
+        SortedSeq<String> left = Seqs.newSortedSeq(String.CASE_INSENSITIVE_ORDER, "b", "A", "a", "c");
+        SortedSeq<String> right = Seqs.newSortedSeq(String.CASE_INSENSITIVE_ORDER, "B", "a", "d", "A");
+        assertEquals(Seqs.newSeq("A=a", "A=A", "a=a", "a=A", "b=B"), left.join(right, (l, r) -> l + "=" + r));
+        assertEquals(Seqs.newSeq(), left.join(Seqs.newSortedSeq(String.CASE_INSENSITIVE_ORDER), (l, r) -> l + r));
+
+        SortedSeq<Integer> merged = Seqs.mergeSorted(a, b, Seqs.newSortedSeq(null, 8, 0), Seqs.newSortedSeq(null));
+        assertEquals(a.merge(b).merge(Seqs.newSortedSeq(null, 0, 8)), merged);
+        assertEquals(Seqs.newSeq("a", "A", "A", "b"), Seqs.mergeSorted(Arrays.asList(Seqs.newSortedSeq(String.CASE_INSENSITIVE_ORDER, "a"),
+                Seqs.newSortedSeq(String.CASE_INSENSITIVE_ORDER, "A", "b"), Seqs.newSortedSeq(String.CASE_INSENSITIVE_ORDER, "A"))));
+
+        Helpers.assertThrows(IllegalArgumentException.class, () -> a.union(Seqs.newSortedSeq(Comparator.reverseOrder(), 1)));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Seqs.mergeSorted(a, Seqs.newSortedSeq(Comparator.reverseOrder(), 1)));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Seqs.mergeSorted(new ArrayList<SortedSeq<Integer>>()));
+    }
+
+    @Test
+    public void testSortedSeqBinarySearch() {
+        SortedSeq<Integer> seq = Seqs.newSortedSeq(null, 5, 1, 3, 3, 7, 3, 9);
+        assertEquals(Seqs.newSeq(1, 3, 3, 3, 5, 7, 9), seq);
+        assertTrue(seq.contains(7));
+        assertFalse(seq.contains(4));
+        assertEquals(1, seq.indexOf(3));
+        assertEquals(3, seq.lastIndexOf(3));
+        assertEquals(-1, seq.indexOf(0));
+        assertEquals(-1, seq.lastIndexOf(10));
+        assertEquals(3, seq.count(3));
+        assertEquals(0, seq.count(6));
+        assertEquals(1, seq.lowerBound(3));
+        assertEquals(4, seq.upperBound(3));
+        assertEquals(0, seq.lowerBound(-1));
+        assertEquals(7, seq.upperBound(9));
+        assertEquals(Seqs.newSeq(5, 7, 9), seq.filter(e -> e > 3));
+        assertEquals(Comparator.naturalOrder(), seq.distinct().comparator());
+
+        SortedSeq<String> words = Seqs.newSortedSeq(String.CASE_INSENSITIVE_ORDER, "b", "A", "c");
+        assertTrue(words.contains("A"));
+        assertFalse(words.contains("a"));
+        assertEquals(2, words.indexOf("c"));
+        assertEquals(-1, words.indexOf("C"));
+
+        SortedSeq<String> byLength = Seqs.newSortedSeq(Comparator.comparingInt(String::length), "ccc", "q", "bb", "x", "aa", "q");
+        assertEquals(Seqs.newSeq("q", "x", "q", "bb", "aa", "ccc"), byLength);
+        assertTrue(byLength.contains("x"));
+        assertFalse(byLength.contains("y"));
+        assertEquals(0, byLength.indexOf("q"));
+        assertEquals(2, byLength.lastIndexOf("q"));
+        assertEquals(4, byLength.indexOf("aa"));
+        assertEquals(-1, byLength.indexOf("zz"));
+        assertEquals(-1, byLength.lastIndexOf("zz"));
+        assertEquals(2, byLength.count("q"));
+        assertEquals(0, byLength.count("y"));
+        assertEquals(0, byLength.count("dddd"));
+
+        MutableSortedSeq<Integer> mutable = Seqs.newMutableSortedSeq(Comparator.reverseOrder(), 2, 8, 5);
+        assertEquals(Seqs.newSeq(8, 5, 2), mutable);
+        mutable.insertInPlace(6).insertInPlace(1).insertInPlace(9);
+        assertEquals(Seqs.newSeq(9, 8, 6, 5, 2, 1), mutable);
+        SortedSeq<Integer> snapshot = mutable.snapshot();
+        mutable.insertInPlace(Arrays.asList(7, 0, 5)).rejectInPlace(e -> e % 2 == 0);
+        assertEquals(Seqs.newSeq(9, 7, 5, 5, 1), mutable);
+        assertEquals(Seqs.newSeq(9, 8, 6, 5, 2, 1), snapshot);
+        assertEquals(Comparator.reverseOrder(), snapshot.comparator());
+        assertEquals(2, mutable.lowerBound(5));
+        mutable.sortInPlace(Comparator.reverseOrder());
+
+        MutableSortedSeq<String> stable = Seqs.newMutableSortedSeq(String.CASE_INSENSITIVE_ORDER, "a", "B");
+        stable.insertInPlace("A").insertInPlace(Arrays.asList("b", "a"));
+        assertEquals(Seqs.newSeq("a", "A", "a", "B", "b"), stable);
+
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.appendInPlace(10));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.appendInPlace(10, 11));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.set(0, 10));
+        Helpers.assertThrows(UnsupportedOperationException.class, mutable::reverseInPlace);
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.sortInPlace(null));
+        assertEquals(Seqs.newSeq(9, 7, 5, 5, 1), mutable);
+        mutable.freeze();
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.insertInPlace(3));
+    }
+
+    @Test
+    public void testIndexedProbes() {
+        class Probe {
+            private final int value;
+            private int comparisons;
+
+            private Probe(int value) {
+                this.value = value;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                comparisons++;
+                return o instanceof Probe && ((Probe) o).value == value;
+            }
+
+            @Override
+            public int hashCode() {
+                return value;
+            }
+        }
+
+        MutableSeq<Integer> seq = Seqs.newMutableSeq();
+        for (int i = 0; i < 100; i++) {
+            seq.appendInPlace(i % 40);
+        }
+        seq.appendInPlace((Integer) null);
+        for (int round = 0; round < SeqImpl.INDEX_PROBE_THRESHOLD * 2; round++) {
+            assertTrue(seq.contains(39));
+            assertFalse(seq.contains(40));
+            assertEquals(5, seq.indexOf(5));
+            assertEquals(85, seq.lastIndexOf(5));
+            assertEquals(3, seq.count(5));
+            assertEquals(2, seq.count(39));
+            assertEquals(0, seq.count(-1));
+            assertEquals(100, seq.indexOf(null));
+            assertEquals(-1, seq.lastIndexOf(-1));
+        }
+
+        // in-place changes drop the index
+        seq.set(5, -1).appendInPlace(40).rejectInPlace((e, i) -> i == 0);
+        assertEquals(4, seq.indexOf(-1));
+        assertEquals(44, seq.indexOf(5));
+        assertEquals(2, seq.count(5));
+        assertTrue(seq.contains(40));
+        assertEquals(39, seq.indexOf(0));
+        for (int round = 0; round < SeqImpl.INDEX_PROBE_THRESHOLD * 2; round++) {
+            assertEquals(100, seq.indexOf(40));
+        }
+        seq.clear();
+        assertFalse(seq.contains(40));
+
+        MutableSeq<Probe> probes = Seqs.newMutableSeq();
+        for (int i = 0; i < 1000; i++) {
+            probes.appendInPlace(new Probe(i));
+        }
+        Seq<Probe> frozen = probes.freeze();
+        Probe last = new Probe(999);
+        for (int round = 0; round <= SeqImpl.INDEX_PROBE_THRESHOLD; round++) {
+            assertTrue(frozen.contains(last));
+        }
+        last.comparisons = 0;
+        assertTrue(frozen.contains(last));
+        assertEquals(999, frozen.indexOf(last));
+        assertTrue(last.comparisons <= 2);
+
+        MutableSeq<CharSeq> words = Seqs.newMutableSeq();
+        MutableSeq<Hash<Integer, Integer>> hashes = Seqs.newMutableSeq();
+        for (int i = 0; i < 40; i++) {
+            words.appendInPlace(CharSeq.of("w" + i));
+            hashes.appendInPlace(Hashes.<Integer, Integer>newHash().put(i, i));
+        }
+        MutableSeq<Integer> distinct = Seqs.newMutableSeq();
+        for (int i = 0; i <= SeqImpl.MAX_INDEX_ENTRIES; i++) {
+            distinct.appendInPlace(i);
+        }
+        for (int round = 0; round <= SeqImpl.INDEX_PROBE_THRESHOLD + 1; round++) {
+            assertEquals(SeqImpl.MAX_INDEX_ENTRIES, distinct.indexOf(SeqImpl.MAX_INDEX_ENTRIES));
+            assertEquals(1, distinct.count(7));
+        }
+
+        Seq<CharSeq> frozenWords = words.freeze();
+        Seq<Hash<Integer, Integer>> frozenHashes = hashes.freeze();
+        for (int round = 0; round <= SeqImpl.INDEX_PROBE_THRESHOLD + 1; round++) {
+            assertTrue(frozenWords.contains(CharSeq.of("w39")));
+            assertEquals(39, frozenWords.indexOf(CharSeq.of("w39")));
+            assertEquals(39, frozenHashes.indexOf(Hashes.<Integer, Integer>newHash().put(39, 39)));
+        }
+    }
+
+    @Test
+    public void testSelection() {
+        Seq<Integer> seq = Seqs.newSeq(5, 1, 9, 3, 7, 3, 8, 2);
+        assertEquals(Seqs.newSeq(9, 8, 7), seq.maxN(3, Comparator.naturalOrder()));
+        assertEquals(Seqs.newSeq(1, 2, 3, 3), seq.minN(4, Comparator.naturalOrder()));
+        Comparator<String> byFirst = Comparator.comparing(str -> str.charAt(0));
+        assertEquals(Seqs.newSeq("2c", "1a"), Seqs.newSeq("1a", "1b", "2c").maxN(2, byFirst));
+        assertEquals(Seqs.newSeq("0d", "1a"), Seqs.newSeq("1a", "1b", "1c", "0d").minN(2, byFirst));
+        assertEquals(Seqs.newSeq("1a", "1b", "1c"), Seqs.newSeq("1a", "1b", "1c", "0d").maxN(3, byFirst));
+        assertEquals(Seqs.newSeq(), seq.minN(0, Comparator.naturalOrder()));
+        assertEquals(seq.sort(Comparator.reverseOrder()), seq.maxN(100, Comparator.naturalOrder()));
+        assertEquals(Seqs.newSeq(5, 1, 9, 3, 7, 3, 8, 2), seq);
+        assertEquals(Seqs.newSeq("bb", "ccc"), Seqs.newSeq("a", "bb", "ccc", "dd").maxN(2, Comparator.comparing(String::length)).reverse());
+
+        assertEquals(Integer.valueOf(1), seq.nthElement(0, Comparator.naturalOrder()));
+        assertEquals(Integer.valueOf(3), seq.nthElement(3, Comparator.naturalOrder()));
+        assertEquals(Integer.valueOf(9), seq.nthElement(7, Comparator.naturalOrder()));
+        assertEquals(Optional.of(3), seq.median(Comparator.naturalOrder()));
+        assertEquals(Optional.of(5), seq.append(10).median(Comparator.naturalOrder()));
+        assertEquals(Optional.empty(), Seqs.<Integer>newSeq().median(Comparator.naturalOrder()));
+
+        Random random = new Random(42);
+        MutableSeq<Integer> large = Seqs.newMutableSeq();
+        for (int i = 0; i < 5000; i++) {
+            large.appendInPlace(random.nextInt(100));
+        }
+        Seq<Integer> sorted = large.sort(null);
+        for (int n : new int[]{0, 1, 17, 2500, 4998, 4999}) {
+            assertEquals(sorted.get(n), large.nthElement(n, Comparator.naturalOrder()));
+        }
+        assertEquals(sorted.subSeq(0, 10), large.minN(10, Comparator.naturalOrder()));
+        assertEquals(sorted.subSeq(4990, 5000).reverse(), large.maxN(10, Comparator.naturalOrder()));
+        assertEquals(sorted.get(10), sorted.nthElement(10, Comparator.naturalOrder()));
+        assertEquals(sorted.subSeq(0, 3), sorted.minN(3, Comparator.naturalOrder()));
+
+        MutableSeq<Integer> partial = large.subSeq(0, 5000);
+        partial.partialSortInPlace(100, Comparator.naturalOrder());
+        assertEquals(sorted.subSeq(0, 100), partial.subSeq(0, 100));
+        assertEquals(sorted, partial.sort(null));
+        partial.partialSortInPlace(10000, Comparator.reverseOrder());
+        assertEquals(sorted.reverse(), partial);
+
+        Helpers.assertThrows(IllegalArgumentException.class, () -> seq.maxN(-1, Comparator.naturalOrder()));
+        Helpers.assertThrows(IndexOutOfBoundsException.class, () -> seq.nthElement(8, Comparator.naturalOrder()));
+        Helpers.assertThrows(IndexOutOfBoundsException.class, () -> sorted.nthElement(-1, Comparator.naturalOrder()));
+        Helpers.assertThrows(NullPointerException.class, () -> seq.minN(1, null));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> partial.partialSortInPlace(-1, Comparator.naturalOrder()));
+    }
+
+    @Test
+    public void testSortBy() {
+        Seq<String> words = Seqs.newSeq("pear", "fig", "banana", "kiwi", "apple", "date");
+        int[] calls = {0};
+        Seq<String> byLength = words.sortBy(w -> {
+            calls[0]++;
+            return w.length();
+        });
+        assertEquals(Seqs.newSeq("fig", "pear", "kiwi", "date", "apple", "banana"), byLength);
+        assertEquals(words.size(), calls[0]);
+        assertEquals(Seqs.newSeq("banana", "apple", "pear", "kiwi", "date", "fig"), words.sortBy(String::length, Comparator.reverseOrder()));
+        assertEquals(byLength, words.sortByInt(String::length));
+        assertEquals(byLength, words.sortByLong(w -> (long) w.length()));
+        assertEquals(Seqs.newSeq("pear", "fig", "banana", "kiwi", "apple", "date"), words);
+        assertEquals(Seqs.newSeq(), Seqs.<String>newSeq().sortByInt(String::length));
+
+        Random random = new Random(7);
+        MutableSeq<Long> values = Seqs.newMutableSeq();
+        for (int i = 0; i < 3000; i++) {
+            values.appendInPlace(random.nextInt(3) == 0 ? random.nextLong() : (long) random.nextInt(1000) - 500);
+        }
+        values.appendInPlace(Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L);
+        Seq<Long> sorted = values.sort(null);
+        assertEquals(sorted, values.sortByLong(v -> v));
+        assertEquals(sorted, values.sortBy(v -> v));
+        assertEquals(values.sort(Comparator.comparingInt(Long::intValue)), values.sortByInt(Long::intValue));
+        // stable: equal keys keep their order
+        Seq<Long> threes = values.filter(v -> v % 10 == 3);
+        assertEquals(threes, values.sortByInt(v -> v % 10 == 3 ? 0 : 1).subSeq(0, threes.size()));
+
+        MutableSeq<Long> parallel = values.subSeq(0, values.size());
+        parallel.parallelSortInPlace(null);
+        assertEquals(sorted, parallel);
+        parallel.parallelSortInPlace(Comparator.reverseOrder());
+        assertEquals(sorted.reverse(), parallel);
+
+        Helpers.assertThrows(NullPointerException.class, () -> words.sortByInt(null));
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> Seqs.newMutableSortedSeq(null, values.toArrayList()).parallelSortInPlace(Comparator.reverseOrder()));
+        parallel.freeze();
+        Helpers.assertThrows(UnsupportedOperationException.class, () -> parallel.parallelSortInPlace(null));
+    }
+
+    @Test
+    public void testExternalSort() throws IOException {
+        Path directory = Files.createTempDirectory("icefig-test");
+        try {
+            Random random = new Random(3);
+            MutableSeq<String> words = Seqs.newMutableSeq();
+            for (int i = 0; i < 5000; i++) {
+                words.appendInPlace(Integer.toString(random.nextInt(2000), 36) + "\u3042");
+            }
+            Seq<String> sorted = words.sort(null);
+
+            ExternalSort<String> sort = Seqs.newExternalSort(Comparator.naturalOrder(), Codecs.ofString(), 37, directory);
+            assertEquals(sorted, sort.sort(words));
+            // more runs than the fan-in, merged in several passes
+            assertEquals(sorted, Seqs.newExternalSort(Comparator.<String>naturalOrder(), Codecs.ofString(), 3, directory).sort(words));
+            assertEquals(0, countFiles(directory));
+
+            // stable: equal elements keep their order
+            Seq<String> byLength = Seqs.newExternalSort(Comparator.comparingInt(String::length), Codecs.ofString(), 10, directory).sort(words);
+            assertEquals(words.sortByInt(String::length), byLength);
+
+            ExternalSort.SortedIterator<String> iterator = sort.sort(words.subSeq(0, 100).toArrayList().iterator());
+            assertTrue(countFiles(directory) > 0);
+            assertEquals(sorted.filter(words.subSeq(0, 100)::contains).get(0), iterator.next());
+            iterator.close();
+            assertFalse(iterator.hasNext());
+            assertEquals(0, countFiles(directory));
+
+            // fits in one run, sorted in memory
+            assertEquals(Seqs.newSeq(1L, 2L, 3L), Seqs.newExternalSort(Comparator.naturalOrder(), Codecs.ofLong()).sort(Seqs.newSeq(3L, 1L, 2L)));
+            assertEquals(Seqs.newSeq(), sort.sort(Seqs.newSeq()));
+            assertEquals(0, countFiles(directory));
+
+            Helpers.assertThrows(IllegalArgumentException.class, () -> Seqs.newExternalSort(Comparator.naturalOrder(), Codecs.ofInteger(), 0, null));
+            Helpers.assertThrows(NullPointerException.class, () -> Seqs.newExternalSort(null, Codecs.ofInteger()));
+        } finally {
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testSpillSeq() throws IOException {
+        Path directory = Files.createTempDirectory("icefig-test");
+        try (SpillSeq<String> seq = Seqs.newSpillSeq(Codecs.ofString(), 100, directory)) {
+            assertTrue(seq.isEmpty());
+            for (int i = 0; i < 1050; i++) {
+                seq.appendInPlace("e" + i);
+            }
+            seq.appendInPlace(Arrays.asList("x", "y"));
+            assertEquals(1052, seq.size());
+            assertEquals(10, countFiles(directory));
+            assertEquals("e0", seq.get(0));
+            assertEquals("e99", seq.get(99));
+            assertEquals("e100", seq.get(100));
+            assertEquals("e777", seq.get(777));
+            assertEquals("e1049", seq.get(1049));
+            assertEquals("y", seq.get(-1));
+            Helpers.assertThrows(IndexOutOfBoundsException.class, () -> seq.get(1052));
+
+            int[] index = {0};
+            seq.forEach(e -> {
+                assertEquals(index[0] < 1050 ? "e" + index[0] : index[0] == 1050 ? "x" : "y", e);
+                index[0]++;
+            });
+            assertEquals(1052, index[0]);
+
+            MutableSeq<Integer> sliceSizes = Seqs.newMutableSeq();
+            seq.forEachSlice(300, slice -> sliceSizes.appendInPlace(slice.size()));
+            assertEquals(Seqs.newSeq(300, 300, 300, 152), sliceSizes);
+            MutableSeq<Seq<String>> slices = Seqs.newMutableSeq();
+            seq.forEachSlice(300, slices::appendInPlace);
+            assertEquals(seq.toSeq().subSeq(300, 600), slices.get(1));
+
+            seq.close();
+            assertEquals(0, countFiles(directory));
+            Helpers.assertThrows(IllegalStateException.class, () -> seq.get(0));
+            Helpers.assertThrows(IllegalStateException.class, () -> seq.appendInPlace("z"));
+        } finally {
+            Files.delete(directory);
+        }
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Seqs.newSpillSeq(Codecs.ofInteger(), 0, null));
+
+        try (SpillSeq<Integer> seq = Seqs.newSpillSeq(Codecs.ofInteger(), 4, null)) {
+            seq.appendInPlace(0, 1, 2, 3, 4, 5);
+            Iterator<Integer> iterator = seq.iterator();
+            MutableSeq<Integer> read = Seqs.newMutableSeq();
+            for (int i = 0; i < 5; i++) {
+                read.appendInPlace(iterator.next());
+            }
+            seq.appendInPlace(6, 7);
+            iterator.forEachRemaining(read::appendInPlace);
+            assertEquals(Seqs.newSeq(0, 1, 2, 3, 4, 5, 6, 7), read);
+
+            assertTrue(seq.contains(6));
+            assertEquals(5, seq.indexOf(5));
+            assertEquals(Seqs.newSeq(1, 3, 5, 7), seq.filter(e -> e % 2 == 1));
+            assertEquals(Seqs.newSeq(2, 3, 4), seq.subSeq(2, 5));
+            assertEquals(Integer.valueOf(28), seq.reduce(Integer::sum));
+            MutableSeq<Integer> mutable = seq;
+            Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.set(0, 1));
+            Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.prependInPlace(1));
+            Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.sortInPlace(null));
+            Helpers.assertThrows(UnsupportedOperationException.class, mutable::clear);
+            mutable.freeze();
+            Helpers.assertThrows(UnsupportedOperationException.class, () -> mutable.appendInPlace(8));
+            assertEquals(8, seq.size());
+        }
+    }
+
+    @Test
+    public void testMappedSeq() throws IOException {
+        Path file = Files.createTempFile("icefig-test", ".records");
+        try {
+            ByteBuffer records = ByteBuffer.allocate(12 * 100);
+            for (int i = 0; i < 100; i++) {
+                records.putInt(i * 2).putLong(i * 10L);
+            }
+            Files.write(file, records.array());
+            MappedSeq.Decoder<long[]> decoder = (buffer, offset) -> new long[]{buffer.getInt(offset), buffer.getLong(offset + 4)};
+            Comparator<long[]> byId = Comparator.comparingLong(r -> r[0]);
+
+            // 4 records in each chunk
+            for (MappedSeq<long[]> seq : Arrays.asList(Seqs.openMappedSeq(file, 12, decoder), MappedSeq.open(file, 12, decoder, 50))) {
+                assertEquals(100, seq.size());
+                assertArrayEquals(new long[]{0, 0}, seq.get(0));
+                assertArrayEquals(new long[]{14, 70}, seq.get(7));
+                assertArrayEquals(new long[]{198, 990}, seq.get(-1));
+                Helpers.assertThrows(IndexOutOfBoundsException.class, () -> seq.get(100));
+
+                int[] count = {0};
+                seq.forEach(r -> assertEquals(count[0]++ * 10L, r[1]));
+                assertEquals(100, count[0]);
+                seq.forEach((r, i) -> assertEquals(i * 2L, r[0]));
+
+                MappedSeq<long[]> view = seq.subSeq(10, 20);
+                assertEquals(10, view.size());
+                assertArrayEquals(new long[]{20, 100}, view.get(0));
+                assertArrayEquals(new long[]{26, 130}, view.subSeq(3, 5).get(0));
+                assertEquals(10, view.toSeq().size());
+                Helpers.assertThrows(IndexOutOfBoundsException.class, () -> view.subSeq(5, 11));
+
+                assertEquals(21, seq.indexOf(new long[]{42}, byId));
+                assertEquals(-1, seq.indexOf(new long[]{43}, byId));
+                assertEquals(22, seq.lowerBound(new long[]{43}, byId));
+                assertEquals(22, seq.upperBound(new long[]{42}, byId));
+                assertEquals(100, seq.lowerBound(new long[]{1000}, byId));
+                assertEquals(2, view.indexOf(new long[]{24}, byId));
+
+                Seq<long[]> asSeq = view;
+                assertEquals(Seqs.newSeq(100L, 110L, 120L), asSeq.map(r -> r[1]).subSeq(0, 3));
+                assertEquals(5, asSeq.filter(r -> r[0] % 4 == 0).size());
+                assertEquals(190L, asSeq.maxN(1, Comparator.comparingLong(r -> r[1])).get(0)[1]);
+                assertEquals(190L, asSeq.reverse().first()[1]);
+                assertTrue(asSeq.any(r -> r[0] == 38));
+                assertEquals(10, asSeq.stream().count());
+            }
+
+            Helpers.assertThrows(IllegalArgumentException.class, () -> Seqs.openMappedSeq(file, 7, decoder));
+            Helpers.assertThrows(IllegalArgumentException.class, () -> Seqs.openMappedSeq(file, 0, decoder));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBigLongSeq() {
+        // 8 values in each chunk
+        BigLongSeq seq = new BigLongSeq(3);
+        assertTrue(seq.isEmpty());
+        for (long i = 0; i < 100; i++) {
+            seq.appendInPlace(i * i);
+        }
+        seq.appendInPlace(-1, -2);
+        assertEquals(102L, seq.size());
+        assertEquals(0L, seq.get(0));
+        assertEquals(49L, seq.get(7));
+        assertEquals(64L, seq.get(8));
+        assertEquals(-2L, seq.get(101));
+        seq.set(101, 2);
+        assertEquals(2L, seq.get(101));
+        Helpers.assertThrows(IndexOutOfBoundsException.class, () -> seq.get(102));
+        Helpers.assertThrows(IndexOutOfBoundsException.class, () -> seq.set(-1, 0));
+
+        long expected = LongStream.range(0, 100).map(i -> i * i).sum() + 1;
+        assertEquals(expected, seq.sum());
+        assertEquals(expected, seq.reduce(0, Long::sum));
+        assertEquals(expected, seq.parallelStream().sum());
+        assertEquals(9801L, seq.stream().max().getAsLong());
+        long[] count = {0};
+        seq.forEach(v -> count[0]++);
+        assertEquals(102L, count[0]);
+
+        MutableSeq<LongSeq> slices = Seqs.newMutableSeq();
+        seq.forEachSlice(25, slices::appendInPlace);
+        assertEquals(5, slices.size());
+        assertEquals(625L, slices.get(1).get(0));
+        assertEquals(25, slices.get(3).size());
+        assertEquals(Seqs.newLongSeq(-1, 2), slices.get(4));
+
+        assertEquals(0L, Seqs.newBigLongSeq().parallelStream().count());
+        Helpers.assertThrows(IllegalArgumentException.class, () -> seq.forEachSlice(0, s -> {
+        }));
+    }
+
+    @Test
+    public void testBinaryCodecs() throws IOException {
+        Codec<Integer> varInt = Codecs.ofVarInt();
+        assertEquals(1, varInt.toBytes(0).length);
+        assertEquals(1, varInt.toBytes(-64).length);
+        assertEquals(2, varInt.toBytes(64).length);
+        assertEquals(5, varInt.toBytes(Integer.MIN_VALUE).length);
+        for (int value : new int[]{0, 1, -1, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            assertEquals(Integer.valueOf(value), varInt.fromBytes(varInt.toBytes(value)));
+        }
+        for (long value : new long[]{0, 1, -1, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(Long.valueOf(value), Codecs.ofVarLong().fromBytes(Codecs.ofVarLong().toBytes(value)));
+        }
+        assertEquals(10, Codecs.ofVarLong().toBytes(Long.MIN_VALUE).length);
+
+        Codec<Seq<CharSeq>> charSeqs = Codecs.ofSeq(Codecs.nullable(Codecs.ofCharSeq()));
+        Seq<CharSeq> words = Seqs.newSeq(CharSeq.of("ice"), null, CharSeq.of("\u3042\u3044"), CharSeq.of(""));
+        byte[] bytes = charSeqs.toBytes(words);
+        assertEquals(1 + 5 + 1 + 8 + 2, bytes.length);
+        assertEquals(words, charSeqs.fromBytes(bytes));
+
+        Codec<Hash<String, Seq<Integer>>> hashCodec = Codecs.ofHash(Codecs.ofString(), Codecs.ofSeq(Codecs.ofVarInt()));
+        Hash<String, Seq<Integer>> hash = Hashes.<String, Seq<Integer>>newHash().put("a", Seqs.newSeq(1, 2)).put("b", Seqs.newSeq());
+        assertEquals(hash, hashCodec.fromBytes(hashCodec.toBytes(hash)));
+        MutableHash<Integer, Integer> large = Hashes.newMutableHash();
+        for (int i = 0; i < 1000; i++) {
+            large.putInPlace(i, -i);
+        }
+        Codec<Hash<Integer, Integer>> intHash = Codecs.ofHash(Codecs.ofVarInt(), Codecs.ofVarInt());
+        assertEquals(large, intHash.fromBytes(intHash.toBytes(large)));
+
+        IntSeq ints = Seqs.newIntSeq(0, -1, 1000000, Integer.MIN_VALUE);
+        assertEquals(ints, Codecs.ofIntSeq().fromBytes(Codecs.ofIntSeq().toBytes(ints)));
+        LongSeq longs = Seqs.newLongSeq(Long.MAX_VALUE, 5);
+        assertEquals(longs, Codecs.ofLongSeq().fromBytes(Codecs.ofLongSeq().toBytes(longs)));
+
+        // streams and buffers
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        charSeqs.writeTo(words, out);
+        Codecs.ofIntSeq().writeTo(ints, out);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(words, charSeqs.readFrom(in));
+        assertEquals(ints, Codecs.ofIntSeq().readFrom(in));
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        charSeqs.writeTo(words, buffer);
+        Codecs.ofVarInt().writeTo(-3, buffer);
+        buffer.flip();
+        assertEquals(words, charSeqs.readFrom(buffer));
+        assertEquals(Integer.valueOf(-3), Codecs.ofVarInt().readFrom(buffer));
+        assertFalse(buffer.hasRemaining());
+        Helpers.assertThrows(BufferOverflowException.class, () -> charSeqs.writeTo(words, ByteBuffer.allocate(4)));
+
+        // streaming readers
+        Iterator<CharSeq> iterator = Codecs.seqIterator(Codecs.nullable(Codecs.ofCharSeq()), new ByteArrayInputStream(bytes));
+        assertEquals(CharSeq.of("ice"), iterator.next());
+        assertNull(iterator.next());
+        iterator.next();
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        Iterator<Map.Entry<Integer, Integer>> entries = Codecs.hashIterator(Codecs.ofVarInt(), Codecs.ofVarInt(), new ByteArrayInputStream(intHash.toBytes(large)));
+        int count = 0;
+        while (entries.hasNext()) {
+            Map.Entry<Integer, Integer> entry = entries.next();
+            assertEquals(-entry.getKey(), (int) entry.getValue());
+            count++;
+        }
+        assertEquals(1000, count);
+
+        Helpers.assertThrows(UncheckedIOException.class, () -> charSeqs.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+        Iterator<CharSeq> truncated = Codecs.seqIterator(Codecs.nullable(Codecs.ofCharSeq()), new ByteArrayInputStream(bytes, 0, 6));
+        truncated.next();
+        Helpers.assertThrows(UncheckedIOException.class, truncated::next);
+        assertFalse(truncated.hasNext());
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        Hash<String, Object> tree = Hashes.<String, Object>newHash()
+                .put("name", CharSeq.of("ice\"fig\"\n\u0001\u2028"))
+                .put("tags", Seqs.newSeq("a", null, 'c'))
+                .put("counts", Seqs.newIntSeq(1, -2))
+                .put("nested", Seqs.newSeq(Hashes.newHash(), Seqs.newSeq(), true, 1.5, 10L, new java.math.BigInteger("123456789012345678901234567890")));
+        // in the iteration order of the hash
+        String json = "{\"counts\":[1,-2],\"name\":\"ice\\\"fig\\\"\\n\\u0001\\u2028\","
+                + "\"nested\":[{},[],true,1.5,10,123456789012345678901234567890],\"tags\":[\"a\",null,\"c\"]}";
+        assertEquals(json, Json.toJson(tree));
+        StringWriter writer = new StringWriter();
+        Json.write(tree, writer);
+        assertEquals(json, writer.toString());
+
+        Hash<String, Object> expected = Hashes.<String, Object>newHash()
+                .put("name", "ice\"fig\"\n\u0001\u2028")
+                .put("tags", Seqs.newSeq("a", null, "c"))
+                .put("counts", Seqs.newSeq(1L, -2L))
+                .put("nested", Seqs.newSeq(Hashes.newHash(), Seqs.newSeq(), true, 1.5, 10L, new java.math.BigInteger("123456789012345678901234567890")));
+        assertEquals(expected, Json.parse(json));
+        // one character per read, crossing the buffer at every position
+        Reader slow = new Reader() {
+            private final Reader reader = new StringReader(" " + json + " \n");
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return reader.read(buffer, offset, Math.min(length, 1));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertEquals(expected, Json.parse(slow));
+        assertEquals(Seqs.newSeq(-0.5e3, 0L, Long.MIN_VALUE, "\u00e9/"), Json.parse("[-0.5e3, 0, -9223372036854775808, \"\\u00E9\\/\"]"));
+        assertNull(Json.parse(" null "));
+
+        // pulling tokens
+        JsonReader reader = new JsonReader(new StringReader("{\"skip\": [1, {\"a\": [2]}], \"take\": \"x\", \"more\": false}"));
+        reader.beginObject();
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+        assertEquals(JsonReader.Token.NAME, reader.peek());
+        assertEquals("take", reader.nextName());
+        assertEquals("x", reader.nextString());
+        assertEquals("more", reader.nextName());
+        assertFalse(reader.nextBoolean());
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        reader.endDocument();
+
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("[1,]"));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\" 1}"));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("[01]"));
+        for (String number : new String[]{"-", "1.", ".5", "1e", "1e+", "--1", "1-2", "+1", "-01", "1.5.2"}) {
+            Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("[" + number + "]"));
+        }
+        assertEquals(Seqs.newSeq(-0L, 123456789012345678L, 1.5e-7, 2e10, new java.math.BigInteger("123456789012345678901")),
+                Json.parse("[-0, 123456789012345678, 1.5e-7, 2E+10, 123456789012345678901]"));
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            deep.append('[');
+        }
+        for (int i = 0; i < 200000; i++) {
+            deep.append(']');
+        }
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse(deep));
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < JsonReader.MAX_DEPTH / 2; i++) {
+            nested.insert(0, "{\"a\":[").append("]}");
+        }
+        assertTrue(Json.parse(nested) instanceof Hash);
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("[" + nested + "]"));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("[\"a]"));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("[truex]"));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("[1] 2"));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse(""));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.parse("["));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.toJson(Seqs.newSeq(Double.NaN)));
+        Helpers.assertThrows(IllegalArgumentException.class, () -> Json.toJson(new Object()));
+        JsonReader number = new JsonReader(new StringReader("1"));
+        try {
+            number.nextString();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(JsonReader.Token.NUMBER, number.peek());
+        }
+    }
+
+    @Test
+    public void testJoinTo() throws IOException {
+        Seq<Object> seq = Seqs.newSeq("a", CharSeq.of("b"), new StringBuilder("c"), 1, null);
+        assertEquals(CharSeq.of("a,b,c,1,null"), seq.join(","));
+        assertEquals(CharSeq.of("<a, b>"), Seqs.newSeq("a", CharSeq.of("b")).join(", ", "<", ">"));
+        assertEquals(CharSeq.of("[]"), Seqs.newSeq().join(",", "[", "]"));
+
+        StringBuilder buffer = new StringBuilder("head:");
+        assertSame(buffer, seq.joinTo(buffer, "|"));
+        assertEquals("head:a|b|c|1|null", buffer.toString());
+        StringWriter writer = new StringWriter();
+        Seqs.newSeq("x", "y").joinTo(writer, ";", "(", ")").write('!');
+        assertEquals("(x;y)!", writer.toString());
+
+        IntSeq ints = Seqs.newIntSeq(0, -7, 42, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        assertEquals(CharSeq.of("0,-7,42,-2147483648,2147483647"), ints.join(","));
+        assertEquals(CharSeq.of(""), Seqs.newIntSeq().join(","));
+        LongSeq longs = Seqs.newLongSeq(Long.MIN_VALUE, -1, 0, 9, 10, 99999, Long.MAX_VALUE);
+        String expected = "{-9223372036854775808 -1 0 9 10 99999 9223372036854775807}";
+        assertEquals(CharSeq.of(expected), longs.join(" ", "{", "}"));
+        StringWriter longWriter = new StringWriter();
+        longs.joinTo(longWriter, " ", "{", "}");
+        assertEquals(expected, longWriter.toString());
+        // neither a StringBuilder nor a Writer
+        assertEquals(expected, longs.joinTo(new StringBuffer(), " ", "{", "}").toString());
+        assertEquals(expected.length(), longs.join(" ", "{", "}").length());
+
+        try {
+            seq.joinTo(null, ",");
+            fail();
+        } catch (NullPointerException e) {
+            // expected
+        }
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
 }